@@ -0,0 +1,142 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//AStarEngine runs A* search guided by the grid coordinates of the nodes
+
+package maze;
+
+/*
+A* search with a Manhattan distance heuristic
+
+Nodes are expanded in order of f = g + h, where g is the number of edges
+from the source and h is an estimate of the edges still needed:
+
+    h(v) = ceil(manhattan(v, target) / maxEdgeSpan)
+
+maxEdgeSpan is the longest connection of the graph in grid steps (see
+Graph.getMaxEdgeSpan()), so h never overestimates, and because h changes by
+at most 1 along an edge it is consistent: a node's g is final once it is
+expanded. The path therefore has the same length as the one BFS finds, but on
+open mazes far fewer nodes are expanded because the search heads towards the
+goal. Between equal f, the node closer to the goal goes first.
+
+The priority queue is the context's IntMinHeap; a node reached again by a
+shorter route gets its key lowered in place.
+ */
+public class AStarEngine implements SearchEngine {
+
+    @Override
+    public boolean search(Graph graph, SearchContext context, int source, int target) {
+        // Start a new query (bumps the epoch instead of resetting every node)
+        context.begin(graph.size());
+        context.beginHeap(graph.size());
+
+        // Cache the context arrays in locals for the hot loop
+        int[] parent = context.getParent();
+        int[] visited = context.getVisited();
+        int[] distance = context.getDistance();
+        IntMinHeap open = context.getHeap();
+        int epoch = context.getEpoch();
+        SearchListener listener = context.getListener();
+
+        // Heuristic setup
+        int span = graph.getMaxEdgeSpan();
+        int targetX = graph.getX(target);
+        int targetY = graph.getY(target);
+
+        // Seed the heap with the source
+        visited[source] = epoch;
+        parent[source] = -1;
+        distance[source] = 0;
+        open.add(source, key(0, estimate(graph, source, targetX, targetY, span)));
+
+        int expanded = 0;
+        long edges = 0;
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            expanded++;
+            if (listener != null) {
+                listener.nodeExpanded(current);
+            }
+
+            // With a consistent heuristic the goal's distance is final when it is polled
+            if (current == target) {
+                if (listener != null) {
+                    listener.goalFound(target);
+                }
+                context.setExpandedCount(expanded);
+                context.setEdgesInspected(edges);
+                context.tracePath(target);
+                return true;
+            }
+
+            // Relax every neighbour
+            int g = distance[current] + 1;
+            int start = graph.edgeStart(current);
+            int end = graph.edgeEnd(current);
+            edges += end - start;
+            for (int e = start; e < end; e++) {
+                int next = graph.target(e);
+                if (visited[next] != epoch) {
+                    // First time this node is reached
+                    visited[next] = epoch;
+                    parent[next] = current;
+                    distance[next] = g;
+                    open.add(next, key(g, estimate(graph, next, targetX, targetY, span)));
+                    if (listener != null) {
+                        listener.edgeRelaxed(current, next);
+                    }
+                } else if (g < distance[next] && open.contains(next)) {
+                    // A shorter route to a node still waiting in the heap
+                    parent[next] = current;
+                    distance[next] = g;
+                    open.decreaseKey(next, key(g, estimate(graph, next, targetX, targetY, span)));
+                }
+            }
+        }
+
+        // The goal is not reachable from the source
+        context.setExpandedCount(expanded);
+        context.setEdgesInspected(edges);
+        return false;
+    }
+
+    /*
+    Estimate the number of edges from a node to the goal
+
+    @param graph Graph being searched
+
+    @param node Node id
+
+    @param targetX X coordinate of the goal
+
+    @param targetY Y coordinate of the goal
+
+    @param span Longest connection in grid steps (0 turns the heuristic off)
+
+    @return Lower bound on the path length to the goal
+     */
+    private static int estimate(Graph graph, int node, int targetX, int targetY, int span) {
+        if (span == 0) {
+            return 0;
+        }
+        long manhattan = Math.abs((long) graph.getX(node) - targetX) + Math.abs((long) graph.getY(node) - targetY);
+        return (int) Math.min((manhattan + span - 1) / span, Integer.MAX_VALUE / 2);
+    }
+
+    /*
+    Heap key: f first, then h, so ties go to the node nearer the goal
+
+    @param g Edges from the source
+
+    @param h Estimated edges to the goal
+
+    @return Key for the IntMinHeap
+     */
+    private static long key(int g, int h) {
+        return ((long) g + h) << 32 | h;
+    }
+}
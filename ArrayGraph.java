@@ -0,0 +1,131 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//ArrayGraph keeps a CSR graph in ordinary Java arrays on the heap
+
+package maze;
+
+/*
+Heap-backed Graph
+
+The neighbours of node v are targets[offsets[v]] .. targets[offsets[v+1]-1].
+Names are kept as bytes in a NameTable and only turned into Strings when
+asked for.
+ */
+final class ArrayGraph extends Graph {
+
+    // Node data, indexed by node id
+    private final NameTable names;         // Name of each node (e.g., "START", "B", "EXIT"), as bytes
+
+    private final int[] xs;                // X coordinate of each node
+
+    private final int[] ys;                // Y coordinate of each node
+
+    // Adjacency in CSR form
+    private final int[] offsets;           // offsets[v] is the index of v's first neighbour in targets
+
+    private final int[] targets;           // Neighbour ids of every node, back to back
+
+    private final double[] weights;        // Weight of each edge, parallel to targets (null = Euclidean)
+
+    /*
+    Constructor
+
+    @param names Node names, interned in id order
+
+    @param xs X coordinates by id
+
+    @param ys Y coordinates by id
+
+    @param offsets CSR offsets (length size()+1)
+
+    @param targets CSR neighbour ids
+
+    @param weights Edge weights parallel to targets, or null for Euclidean distances
+     */
+    ArrayGraph(NameTable names, int[] xs, int[] ys, int[] offsets, int[] targets, double[] weights) {
+        super(null);
+        this.names = names;
+        this.xs = xs;
+        this.ys = ys;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    @Override
+    public int size() {
+        // Return the number of nodes in the graph
+        return names.size();
+    }
+
+    @Override
+    public int getEdgeCount() {
+        // Each undirected connection appears once in each endpoint's neighbour list
+        return targets.length / 2;
+    }
+
+    @Override
+    public int idOf(String name) {
+        return names.find(name);
+    }
+
+    @Override
+    public String nameOf(int id) {
+        // Decoded on each call
+        return names.nameOf(id);
+    }
+
+    @Override
+    public int getX(int id) {
+        return xs[id];
+    }
+
+    @Override
+    public int getY(int id) {
+        return ys[id];
+    }
+
+    @Override
+    public int edgeStart(int id) {
+        return offsets[id];
+    }
+
+    @Override
+    public int edgeEnd(int id) {
+        return offsets[id + 1];
+    }
+
+    @Override
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    @Override
+    public boolean hasWeights() {
+        return weights != null;
+    }
+
+    @Override
+    public double weight(int from, int edge) {
+        return weights != null ? weights[edge] : distance(from, targets[edge]);
+    }
+
+    @Override
+    public int degree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    @Override
+    int nameLength(int id) {
+        return names.length(id);
+    }
+
+    @Override
+    void getNameBytes(int id, byte[] destination, int offset) {
+        System.arraycopy(names.bytes(), names.start(id), destination, offset, names.length(id));
+    }
+}
@@ -0,0 +1,305 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//BatchSolver solves many maze files from the command line without opening a window
+
+package maze;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/*
+Headless batch solver
+
+Usage:
+    java -cp bin maze.MazeApp [-o results.tsv] [-j parsers] <directory|glob>...
+
+A directory argument means every *.txt file in it; anything else is a glob
+such as mazes/**.txt. Every maze is loaded and solved on its own thread
+(a virtual thread on Java 21 and later). At most "parsers" files are loaded
+at the same time (default: one per core), so threads waiting on the disk
+never leave the cores idle and never overload them. One tab-separated line
+is written per maze, in the order the mazes finish:
+
+    file  status  nodes  load_ms  solve_ms  path
+
+The status is OK, NO_PATH, LOAD_FAILED or ERROR (the task threw). Only
+result lines go to the output; load errors and other diagnostics are
+printed on stderr.
+ */
+public class BatchSolver {
+
+    private final PrintStream out;        // Where result lines are written
+
+    private final Semaphore parsePermits; // Bounds how many files are loaded at once
+
+    /*
+    Constructor
+
+    @param out Where result lines are written
+
+    @param parsers Maximum number of files loaded at the same time
+     */
+    public BatchSolver(PrintStream out, int parsers) {
+        this.out = out;
+        this.parsePermits = new Semaphore(parsers);
+    }
+
+    /*
+    Command line entry point
+
+    @param args Options and maze file arguments (see class comment)
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        PrintStream out = System.out;
+        int parsers = Runtime.getRuntime().availableProcessors();
+        List<String> patterns = new ArrayList<>();
+
+        // Parse the options
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-o") && i + 1 < args.length) {
+                out = new PrintStream(new FileOutputStream(args[++i]), false, "UTF-8");
+            } else if (args[i].equals("-j") && i + 1 < args.length) {
+                parsers = Math.max(1, Integer.parseInt(args[++i]));
+            } else {
+                patterns.add(args[i]);
+            }
+        }
+        if (patterns.isEmpty()) {
+            System.err.println("Usage: java -cp bin maze.MazeApp [-o results.tsv] [-j parsers] <directory|glob>...");
+            System.exit(2);
+        }
+
+        // Collect the maze files
+        List<Path> files = new ArrayList<>();
+        for (String pattern : patterns) {
+            files.addAll(findFiles(pattern));
+        }
+
+        long start = System.nanoTime();
+        int solved = new BatchSolver(out, parsers).solveAll(files);
+        long elapsed = System.nanoTime() - start;
+        out.flush();
+        if (out != System.out) {
+            out.close();
+        }
+
+        // Summary goes to stderr so the result file stays clean
+        System.err.printf("Solved %d of %d mazes in %.1f ms%n", solved, files.size(), elapsed / 1e6);
+    }
+
+    /*
+    Solve every file, one thread per maze
+
+    @param files Maze files
+
+    @return Number of mazes that have a path
+     */
+    public int solveAll(List<Path> files) throws InterruptedException {
+        final int[] solved = new int[1];
+        out.println("# file\tstatus\tnodes\tload_ms\tsolve_ms\tpath");
+
+        ExecutorService executor = newExecutor();
+        for (final Path file : files) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (solve(file)) {
+                            synchronized (solved) {
+                                solved[0]++;
+                            }
+                        }
+                    } catch (RuntimeException | Error e) {
+                        // A failed task still gets its line; the details go to stderr
+                        report(file, "ERROR", 0, 0, 0, null);
+                        System.err.println(file + ": " + e);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        return solved[0];
+    }
+
+    /*
+    Load and solve one maze and write its result line
+
+    @param file Maze file
+
+    @return true if the maze has a path
+     */
+    private boolean solve(Path file) {
+        Maze maze = new Maze();
+
+        // Load while holding a parse permit
+        long loadStart = System.nanoTime();
+        boolean loaded;
+        try {
+            parsePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            loaded = maze.loadMaze(file.toString());
+        } finally {
+            parsePermits.release();
+        }
+        long loadTime = System.nanoTime() - loadStart;
+
+        if (!loaded) {
+            report(file, "LOAD_FAILED", 0, loadTime, 0, null);
+            return false;
+        }
+
+        // Solve
+        long solveStart = System.nanoTime();
+        List<String> path = maze.findPath();
+        long solveTime = System.nanoTime() - solveStart;
+
+        if (path.isEmpty()) {
+            report(file, "NO_PATH", 0, loadTime, solveTime, null);
+            return false;
+        }
+        report(file, "OK", path.size(), loadTime, solveTime, path);
+        return true;
+    }
+
+    /*
+    Write one result line
+
+    @param file Maze file
+
+    @param status OK, NO_PATH, LOAD_FAILED or ERROR
+
+    @param nodes Number of nodes on the path
+
+    @param loadTime Load time in nanoseconds
+
+    @param solveTime Solve time in nanoseconds
+
+    @param path Path node names, or null
+     */
+    private void report(Path file, String status, int nodes, long loadTime, long solveTime, List<String> path) {
+        // Build the whole line first so lines from different threads never mix
+        StringBuilder line = new StringBuilder();
+        line.append(file).append('\t').append(status).append('\t').append(nodes).append('\t');
+        line.append(String.format("%.3f\t%.3f\t", loadTime / 1e6, solveTime / 1e6));
+        if (path != null) {
+            for (int i = 0; i < path.size(); i++) {
+                if (i > 0) {
+                    line.append("->");
+                }
+                line.append(path.get(i));
+            }
+        }
+        synchronized (out) {
+            out.println(line);
+        }
+    }
+
+    /*
+    Create the executor that runs one task per maze
+
+    @return A virtual-thread-per-task executor on Java 21+, otherwise a pool of platform threads
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            // Looked up by reflection so the project still builds and runs on older JDKs
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Platform threads: enough of them to keep the cores busy while others wait on the disk
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+
+    /*
+    Expand a directory or glob argument into maze files
+
+    @param pattern Directory, single file or glob
+
+    @return Matching regular files, sorted by path
+     */
+    static List<Path> findFiles(String pattern) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        int wildcard = firstWildcard(pattern);
+        Path path = wildcard < pattern.length() ? null : Paths.get(pattern);
+
+        if (path != null && Files.isDirectory(path)) {
+            // A directory means all its .txt files
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.txt")) {
+                for (Path file : stream) {
+                    if (Files.isRegularFile(file)) {
+                        files.add(file);
+                    }
+                }
+            }
+        } else if (path != null) {
+            // A plain file name
+            if (Files.isRegularFile(path)) {
+                files.add(path);
+            }
+        } else {
+            // A glob: walk from the part before the first wildcard
+            int slash = Math.max(pattern.lastIndexOf('/', wildcard), pattern.lastIndexOf('\\', wildcard));
+            Path base = slash < 0 ? Paths.get(".") : Paths.get(pattern.substring(0, slash + 1));
+            final PathMatcher matcher = FileSystems.getDefault().getPathMatcher(
+                    "glob:" + (slash < 0 ? pattern : pattern.substring(slash + 1)));
+            final Path root = base;
+            if (Files.isDirectory(root)) {
+                Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile() && matcher.matches(root.relativize(file))) {
+                            files.add(file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+        }
+
+        files.sort(null);
+        return files;
+    }
+
+    /*
+    Find the first glob wildcard character
+
+    @param pattern Glob
+
+    @return Index of the first wildcard, or the pattern length if there is none
+     */
+    private static int firstWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return pattern.length();
+    }
+}
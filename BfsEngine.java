@@ -0,0 +1,176 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//BfsEngine runs breadth-first search on a Graph using a reusable SearchContext
+
+package maze;
+
+/*
+Allocation-free breadth-first search
+
+The engine itself has no state; everything a query touches lives in the
+SearchContext, so one engine can be shared freely.
+ */
+public class BfsEngine implements SearchEngine {
+
+    @Override
+    public boolean search(Graph graph, SearchContext context, int source, int target) {
+        // Start a new query (bumps the epoch instead of resetting every node)
+        context.begin(graph.size());
+
+        // Cache the context arrays in locals for the hot loop
+        int[] queue = context.getQueue();
+        int[] parent = context.getParent();
+        int[] visited = context.getVisited();
+        int epoch = context.getEpoch();
+        int mask = queue.length - 1;
+        SearchListener listener = context.getListener();
+
+        // Seed the queue with the source
+        int head = 0;
+        int tail = 0;
+        queue[tail++ & mask] = source;
+        visited[source] = epoch;
+        parent[source] = -1;
+
+        // Standard BFS: expand nodes in first-in first-out order
+        int expanded = 0;
+        long edges = 0;
+        while (head != tail) {
+            int current = queue[head++ & mask];
+            expanded++;
+            if (listener != null) {
+                listener.nodeExpanded(current);
+            }
+
+            // Stop as soon as the goal is dequeued
+            if (current == target) {
+                if (listener != null) {
+                    listener.goalFound(target);
+                }
+                context.setExpandedCount(expanded);
+                context.setEdgesInspected(edges);
+                context.tracePath(target);
+                return true;
+            }
+
+            // Enqueue every neighbour not visited in this epoch
+            int start = graph.edgeStart(current);
+            int end = graph.edgeEnd(current);
+            edges += end - start;
+            for (int e = start; e < end; e++) {
+                int next = graph.target(e);
+                if (visited[next] != epoch) {
+                    visited[next] = epoch;
+                    parent[next] = current;
+                    queue[tail++ & mask] = next;
+                    if (listener != null) {
+                        listener.edgeRelaxed(current, next);
+                    }
+                }
+            }
+        }
+
+        // The goal is not reachable from the source
+        context.setExpandedCount(expanded);
+        context.setEdgesInspected(edges);
+        return false;
+    }
+
+    /*
+    Multi-source, multi-target BFS
+
+    All sources are queued at distance 0, so one BFS finds the target closest
+    to any of them, instead of one search per source and target pair. The
+    first target dequeued is a nearest one; following its parent pointers
+    ends at the source it was reached from.
+
+    @param graph Graph to search
+
+    @param context Scratch state; holds the path (source first) if a target is reached
+
+    @param sources Ids of the sources (duplicates are ignored)
+
+    @param sourceCount Number of ids in sources
+
+    @param targets Ids of the targets
+
+    @param targetCount Number of ids in targets
+
+    @return Id of the target that was reached, or -1 if none can be reached
+     */
+    public int searchNearest(Graph graph, SearchContext context, int[] sources, int sourceCount,
+            int[] targets, int targetCount) {
+        context.begin(graph.size());
+        // The backward stamps mark the goal side, here the targets
+        context.beginBackward(graph.size());
+
+        int[] queue = context.getQueue();
+        int[] parent = context.getParent();
+        int[] visited = context.getVisited();
+        int[] isTarget = context.getBackVisited();
+        int epoch = context.getEpoch();
+        int mask = queue.length - 1;
+        SearchListener listener = context.getListener();
+
+        for (int i = 0; i < targetCount; i++) {
+            isTarget[targets[i]] = epoch;
+        }
+
+        // Seed the queue with every source
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < sourceCount; i++) {
+            int source = sources[i];
+            if (visited[source] != epoch) {
+                visited[source] = epoch;
+                parent[source] = -1;
+                queue[tail++ & mask] = source;
+            }
+        }
+
+        int expanded = 0;
+        long edges = 0;
+        while (head != tail) {
+            int current = queue[head++ & mask];
+            expanded++;
+            if (listener != null) {
+                listener.nodeExpanded(current);
+            }
+
+            // Nodes leave the queue in order of distance, so this target is a nearest one
+            if (isTarget[current] == epoch) {
+                if (listener != null) {
+                    listener.goalFound(current);
+                }
+                context.setExpandedCount(expanded);
+                context.setEdgesInspected(edges);
+                context.tracePath(current);
+                return current;
+            }
+
+            int start = graph.edgeStart(current);
+            int end = graph.edgeEnd(current);
+            edges += end - start;
+            for (int e = start; e < end; e++) {
+                int next = graph.target(e);
+                if (visited[next] != epoch) {
+                    visited[next] = epoch;
+                    parent[next] = current;
+                    queue[tail++ & mask] = next;
+                    if (listener != null) {
+                        listener.edgeRelaxed(current, next);
+                    }
+                }
+            }
+        }
+
+        // No target is reachable from any source
+        context.setExpandedCount(expanded);
+        context.setEdgesInspected(edges);
+        return -1;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//BidirectionalBfsEngine searches from the start and the goal at the same time
+
+package maze;
+
+/*
+Bidirectional breadth-first search
+
+One BFS grows from the source and another from the target. At each step the
+side with the smaller frontier expands one whole level. Whenever an edge
+joins a node of one side to a node of the other, that gives a candidate path
+(forward distance + 1 + backward distance). The search stops once no shorter
+path can exist. The path is then joined through the two parent arrays.
+
+The path has the same length as the one plain BFS finds, but on branchy
+mazes the two searches meet long before either would cover the graph alone.
+ */
+public class BidirectionalBfsEngine implements SearchEngine {
+
+    @Override
+    public boolean search(Graph graph, SearchContext context, int source, int target) {
+        // Start a new query; both directions share the same epoch
+        context.begin(graph.size());
+        context.beginBackward(graph.size());
+
+        // Forward search state
+        int[] queue = context.getQueue();
+        int[] parent = context.getParent();
+        int[] visited = context.getVisited();
+        int[] distance = context.getDistance();
+
+        // Backward search state
+        int[] backQueue = context.getBackQueue();
+        int[] backParent = context.getBackParent();
+        int[] backVisited = context.getBackVisited();
+        int[] backDistance = context.getBackDistance();
+
+        int epoch = context.getEpoch();
+        SearchListener listener = context.getListener();
+
+        // Seed both searches
+        visited[source] = epoch;
+        parent[source] = -1;
+        distance[source] = 0;
+        queue[0] = source;
+        backVisited[target] = epoch;
+        backParent[target] = -1;
+        backDistance[target] = 0;
+        backQueue[0] = target;
+
+        // The nodes of the current level are queue[head] .. queue[tail-1]
+        // (each node is enqueued at most once, so no wrapping is needed)
+        int head = 0;
+        int tail = 1;
+        int backHead = 0;
+        int backTail = 1;
+        int level = 0;       // Distance of the forward frontier from the source
+        int backLevel = 0;   // Distance of the backward frontier from the target
+
+        // Best meeting found so far: edge meetFrom (forward side) -> meetTo (backward side)
+        int best = source == target ? 0 : Integer.MAX_VALUE; // Length of the best path in edges
+        int meetFrom = source;
+        int meetTo = target;
+        int expanded = 0;
+        long edges = 0;
+
+        // Any path not found yet has at least level + backLevel + 1 edges
+        while (best > level + backLevel + 1 && head < tail && backHead < backTail) {
+            if (tail - head <= backTail - backHead) {
+                // Expand the whole forward level
+                int levelEnd = tail;
+                while (head < levelEnd) {
+                    int current = queue[head++];
+                    expanded++;
+                    if (listener != null) {
+                        listener.nodeExpanded(current);
+                    }
+                    int start = graph.edgeStart(current);
+                    int end = graph.edgeEnd(current);
+                    edges += end - start;
+                    for (int e = start; e < end; e++) {
+                        int next = graph.target(e);
+                        // An edge into the backward side is a candidate path
+                        if (backVisited[next] == epoch && level + 1 + backDistance[next] < best) {
+                            best = level + 1 + backDistance[next];
+                            meetFrom = current;
+                            meetTo = next;
+                        }
+                        if (visited[next] != epoch) {
+                            visited[next] = epoch;
+                            parent[next] = current;
+                            distance[next] = level + 1;
+                            queue[tail++] = next;
+                            if (listener != null) {
+                                listener.edgeRelaxed(current, next);
+                            }
+                        }
+                    }
+                }
+                level++;
+            } else {
+                // Expand the whole backward level
+                int levelEnd = backTail;
+                while (backHead < levelEnd) {
+                    int current = backQueue[backHead++];
+                    expanded++;
+                    if (listener != null) {
+                        listener.nodeExpanded(current);
+                    }
+                    int start = graph.edgeStart(current);
+                    int end = graph.edgeEnd(current);
+                    edges += end - start;
+                    for (int e = start; e < end; e++) {
+                        int next = graph.target(e);
+                        // An edge into the forward side is a candidate path
+                        if (visited[next] == epoch && distance[next] + 1 + backLevel < best) {
+                            best = distance[next] + 1 + backLevel;
+                            meetFrom = next;
+                            meetTo = current;
+                        }
+                        if (backVisited[next] != epoch) {
+                            backVisited[next] = epoch;
+                            backParent[next] = current;
+                            backDistance[next] = backLevel + 1;
+                            backQueue[backTail++] = next;
+                            if (listener != null) {
+                                listener.edgeRelaxed(current, next);
+                            }
+                        }
+                    }
+                }
+                backLevel++;
+            }
+        }
+
+        context.setExpandedCount(expanded);
+        context.setEdgesInspected(edges);
+        if (best == Integer.MAX_VALUE) {
+            // One side ran out of nodes without meeting the other
+            return false;
+        }
+
+        // Join the halves: source .. meetFrom from the forward parents,
+        // then meetTo .. target from the backward parents
+        int[] path = context.getPath();
+        int length = context.tracePath(meetFrom);
+        if (meetTo != meetFrom) {
+            for (int v = meetTo; v >= 0; v = backParent[v]) {
+                path[length++] = v;
+            }
+        }
+        context.setPathLength(length);
+        if (listener != null) {
+            listener.goalFound(target);
+        }
+        return true;
+    }
+}
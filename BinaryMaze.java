@@ -0,0 +1,396 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//BinaryMaze writes and opens mazes in a compact binary format that needs no parsing
+
+package maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/*
+Binary maze file format (version 2)
+
+Everything is little-endian. An 80-byte header is followed by the graph's
+arrays, each starting on an 8-byte boundary:
+
+    offset  field
+    0       int    magic "MAZB"
+    4       int    format version
+    8       int    node count n
+    12      int    arc count (twice the connection count)
+    16      int    numberOfNodes, columns, rows of the original header
+    28      int    name hash table size (a power of two)
+    32      long   total bytes of all names
+    40      32 B   SHA-256 digest of the graph (Graph.getDigest)
+    72      int    flags: bit 0 = the file has edge weights
+    76      4 B    reserved (zero)
+    80      xs[n], ys[n], offsets[n+1], targets[arcs], nameStarts[n+1],
+            name hash table, name bytes (UTF-8),
+            weights[arcs] as doubles (only if flag bit 0 is set)
+
+Version 1 files are the same without flags and weights. Mazes without
+weights are still written as version 1.
+
+Opening a file maps each array and wraps it in a BufferGraph, so nothing is
+parsed or copied and even a huge maze can be searched right away; pages are
+read in by the operating system as the search touches them. The stored
+digest means the solution cache does not have to hash the graph either.
+
+Usage (convert a text maze):
+    java -cp bin maze.BinaryMaze Maze1.txt Maze1.mzb
+ */
+public final class BinaryMaze {
+
+    // "MAZB" read as a little-endian int
+    private static final int MAGIC = 'M' | 'A' << 8 | 'Z' << 16 | 'B' << 24;
+
+    // Newest format version (written when the graph has weights)
+    public static final int VERSION = 2;
+
+    // Flag bit: weights follow the name bytes
+    private static final int HAS_WEIGHTS = 1;
+
+    // Bytes before the first array
+    private static final int HEADER_SIZE = 80;
+
+    private final Graph graph;          // Graph backed by the mapped file
+
+    private final int numberOfNodes;    // numberOfNodes of the original text header
+
+    private final int columns;          // Columns of the original text header
+
+    private final int rows;             // Rows of the original text header
+
+    private BinaryMaze(Graph graph, int numberOfNodes, int columns, int rows) {
+        this.graph = graph;
+        this.numberOfNodes = numberOfNodes;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    public Graph getGraph() {
+        // Return the graph (its arrays are views of the mapped file)
+        return graph;
+    }
+
+    public int getNumberOfNodes() {
+        // Return numberOfNodes of the original text header
+        return numberOfNodes;
+    }
+
+    public int getColumns() {
+        // Return the number of columns of the original text header
+        return columns;
+    }
+
+    public int getRows() {
+        // Return the number of rows of the original text header
+        return rows;
+    }
+
+    /*
+    Check whether a file is a binary maze
+
+    @param file File to check
+
+    @return true if the file starts with the binary maze magic number
+     */
+    public static boolean isBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) > 0) {
+                // Keep reading until the four bytes are in
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /*
+    Open a binary maze by mapping its arrays
+
+    @param file Binary maze file
+
+    @return The maze
+     */
+    public static BinaryMaze open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a binary maze (too short)");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a binary maze");
+            }
+            int version = header.getInt(4);
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported binary maze version " + version);
+            }
+            int flags = version >= 2 ? header.getInt(72) : 0;
+            int n = header.getInt(8);
+            int arcs = header.getInt(12);
+            int slotCount = header.getInt(28);
+            long nameByteCount = header.getLong(32);
+            byte[] digest = new byte[32];
+            for (int i = 0; i < 32; i++) {
+                digest[i] = header.get(40 + i);
+            }
+
+            // Map each array where the writer put it
+            long position = HEADER_SIZE;
+            IntBuffer xs = mapInts(channel, position, n);
+            position = align(position + 4L * n);
+            IntBuffer ys = mapInts(channel, position, n);
+            position = align(position + 4L * n);
+            IntBuffer offsets = mapInts(channel, position, n + 1);
+            position = align(position + 4L * (n + 1));
+            IntBuffer targets = mapInts(channel, position, arcs);
+            position = align(position + 4L * arcs);
+            IntBuffer nameStarts = mapInts(channel, position, n + 1);
+            position = align(position + 4L * (n + 1));
+            IntBuffer slots = mapInts(channel, position, slotCount);
+            position = align(position + 4L * slotCount);
+            ByteBuffer nameBytes = map(channel, position, nameByteCount);
+            position = align(position + nameByteCount);
+            DoubleBuffer weights = null;
+            if ((flags & HAS_WEIGHTS) != 0) {
+                weights = map(channel, position, 8L * arcs).asDoubleBuffer();
+            }
+
+            Graph graph = new BufferGraph(nameBytes, nameStarts, slots, xs, ys, offsets, targets, weights,
+                    toHex(digest));
+            return new BinaryMaze(graph, header.getInt(16), header.getInt(20), header.getInt(24));
+        }
+    }
+
+    /*
+    Write a graph as a binary maze
+
+    @param file File to create (replaced if it exists)
+
+    @param graph Graph to write
+
+    @param numberOfNodes numberOfNodes of the text header
+
+    @param columns Columns of the text header
+
+    @param rows Rows of the text header
+     */
+    public static void write(Path file, Graph graph, int numberOfNodes, int columns, int rows) throws IOException {
+        int n = graph.size();
+        int arcs = graph.getEdgeCount() * 2;
+
+        // Name offsets must fit in an int
+        long nameByteCount = 0;
+        for (int v = 0; v < n; v++) {
+            nameByteCount += graph.nameLength(v);
+        }
+        if (nameByteCount > Integer.MAX_VALUE) {
+            throw new IOException("Node names take more than 2 GB");
+        }
+
+        // Build the name hash table the reader will probe
+        int[] slots = new int[NameTable.tableSize(n)];
+        int mask = slots.length - 1;
+        byte[] name = new byte[64];
+        for (int v = 0; v < n; v++) {
+            int length = graph.nameLength(v);
+            if (length > name.length) {
+                name = new byte[Math.max(length, name.length * 2)];
+            }
+            graph.getNameBytes(v, name, 0);
+            int slot = NameTable.hash(ByteBuffer.wrap(name), 0, length) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = v + 1;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+            // Header
+            boolean weighted = graph.hasWeights();
+            buffer.putInt(MAGIC).putInt(weighted ? VERSION : 1).putInt(n).putInt(arcs);
+            buffer.putInt(numberOfNodes).putInt(columns).putInt(rows).putInt(slots.length);
+            buffer.putLong(nameByteCount);
+            String digest = graph.getDigest();
+            for (int i = 0; i < 32; i++) {
+                buffer.put((byte) Integer.parseInt(digest.substring(2 * i, 2 * i + 2), 16));
+            }
+            buffer.putInt(weighted ? HAS_WEIGHTS : 0).putInt(0);
+
+            // Coordinates
+            for (int v = 0; v < n; v++) {
+                putInt(channel, buffer, graph.getX(v));
+            }
+            pad(channel, buffer);
+            for (int v = 0; v < n; v++) {
+                putInt(channel, buffer, graph.getY(v));
+            }
+            pad(channel, buffer);
+
+            // CSR adjacency, packed node by node (an edited graph can leave room between the lists)
+            int offset = 0;
+            for (int v = 0; v < n; v++) {
+                putInt(channel, buffer, offset);
+                offset += graph.degree(v);
+            }
+            putInt(channel, buffer, arcs);
+            pad(channel, buffer);
+            for (int v = 0; v < n; v++) {
+                for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                    putInt(channel, buffer, graph.target(e));
+                }
+            }
+            pad(channel, buffer);
+
+            // Name dictionary: offsets, hash table, bytes
+            int start = 0;
+            for (int v = 0; v < n; v++) {
+                putInt(channel, buffer, start);
+                start += graph.nameLength(v);
+            }
+            putInt(channel, buffer, start);
+            pad(channel, buffer);
+            for (int slot : slots) {
+                putInt(channel, buffer, slot);
+            }
+            pad(channel, buffer);
+            for (int v = 0; v < n; v++) {
+                int length = graph.nameLength(v);
+                if (length > name.length) {
+                    name = new byte[Math.max(length, name.length * 2)];
+                }
+                graph.getNameBytes(v, name, 0);
+                for (int i = 0; i < length; i++) {
+                    if (!buffer.hasRemaining()) {
+                        flush(channel, buffer);
+                    }
+                    buffer.put(name[i]);
+                }
+            }
+
+            // Weights, in edge order
+            if (weighted) {
+                pad(channel, buffer);
+                for (int v = 0; v < n; v++) {
+                    for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                        if (buffer.remaining() < 8) {
+                            flush(channel, buffer);
+                        }
+                        buffer.putDouble(graph.weight(v, e));
+                    }
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /*
+    Map an int array of the file
+
+    @param channel Open file
+
+    @param position Byte offset of the array
+
+    @param count Number of ints
+
+    @return Little-endian view of the ints
+     */
+    private static IntBuffer mapInts(FileChannel channel, long position, int count) throws IOException {
+        return map(channel, position, 4L * count).asIntBuffer();
+    }
+
+    /*
+    Map a byte range of the file
+
+    @param channel Open file
+
+    @param position Byte offset
+
+    @param length Number of bytes
+
+    @return Little-endian read-only buffer
+     */
+    private static ByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            // One mapping is limited to 2 GB
+            throw new IOException("Binary maze array of " + length + " bytes is too large to map");
+        }
+        if (position + length > channel.size()) {
+            throw new IOException("Binary maze is truncated");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long align(long position) {
+        // Round up to the next multiple of 8
+        return (position + 7) & ~7L;
+    }
+
+    private static void putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        // Append one int, writing the buffer out when it is full
+        if (buffer.remaining() < 4) {
+            flush(channel, buffer);
+        }
+        buffer.putInt(value);
+    }
+
+    private static void pad(FileChannel channel, ByteBuffer buffer) throws IOException {
+        // Zero-fill to the next 8-byte boundary (the buffer is flushed in multiples of 8)
+        while ((buffer.position() & 7) != 0) {
+            if (!buffer.hasRemaining()) {
+                flush(channel, buffer);
+            }
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        // Write out the buffered bytes
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static String toHex(byte[] bytes) {
+        // Format bytes as lowercase hex, like Graph.getDigest
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /*
+    Command line converter from the text format
+
+    @param args Text maze file and binary file to write
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java -cp bin maze.BinaryMaze <maze.txt> <maze.mzb>");
+            System.exit(2);
+        }
+        Maze maze = new Maze();
+        if (!maze.loadMaze(args[0])) {
+            System.exit(1);
+        }
+        write(Paths.get(args[1]), maze.getGraph(), maze.getNumberOfNodes(), maze.getColumns(), maze.getRows());
+    }
+}
@@ -0,0 +1,171 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//BucketQueue is Dial's bucket queue of node ids for small whole-number edge weights
+
+package maze;
+
+import java.util.Arrays;
+
+/*
+Dial's bucket queue
+
+When every edge weight is a whole number no larger than maxWeight, the
+keys waiting in a Dijkstra search all lie in [d, d + maxWeight], where d is
+the key last polled. A circular array of maxWeight + 1 buckets, one per key
+modulo maxWeight + 1, therefore keeps the ids sorted with no comparisons:
+add and decreaseKey are O(1), and poll moves a cursor forward to the next
+non-empty bucket.
+
+Each bucket is a doubly linked list threaded through per-id next/previous
+arrays, so an id can be moved to another bucket in O(1). Keys must never be
+smaller than the last key polled.
+
+A queue is not thread-safe; each SearchContext has its own.
+ */
+public final class BucketQueue {
+
+    private int[] head;         // First id of each bucket (-1 = empty)
+
+    private int[] next;         // Next id in the same bucket (-1 = last)
+
+    private int[] previous;     // Previous id in the same bucket (-1 = first)
+
+    private long[] keys;        // Key of each queued id
+
+    private int[] stamp;        // Equals epoch while the id is queued
+
+    private int epoch;          // Stamp of the current use of the queue
+
+    private int size;           // Number of queued ids
+
+    private long cursor;        // Smallest key that may still be queued
+
+    /*
+    Constructor creates an empty queue, arrays are sized by reset()
+     */
+    public BucketQueue() {
+        head = new int[0];
+        next = new int[0];
+        previous = new int[0];
+        keys = new long[0];
+        stamp = new int[0];
+        epoch = 0;
+    }
+
+    /*
+    Empty the queue and size it for a search
+
+    @param capacity Number of distinct ids (ids are 0 .. capacity-1)
+
+    @param maxWeight Largest edge weight of the graph
+     */
+    public void reset(int capacity, int maxWeight) {
+        if (stamp.length < capacity) {
+            next = new int[capacity];
+            previous = new int[capacity];
+            keys = new long[capacity];
+            stamp = new int[capacity];
+            epoch = 0;
+        }
+        int buckets = maxWeight + 1;
+        if (head.length != buckets) {
+            head = new int[buckets];
+        }
+        Arrays.fill(head, -1);
+
+        // A new epoch forgets every queued id without touching the per-id arrays
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        size = 0;
+        cursor = 0;
+    }
+
+    public boolean isEmpty() {
+        // Return true if there is nothing left to poll
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        // Return true if the id is waiting in a bucket
+        return stamp[id] == epoch;
+    }
+
+    /*
+    Queue an id that is not queued
+
+    @param id Id to add
+
+    @param key Its key (at least the last key polled, at most that plus maxWeight)
+     */
+    public void add(int id, long key) {
+        stamp[id] = epoch;
+        keys[id] = key;
+        link(id);
+        size++;
+    }
+
+    /*
+    Move a queued id to a smaller key
+
+    @param id Id already queued
+
+    @param key New key
+     */
+    public void decreaseKey(int id, long key) {
+        unlink(id);
+        keys[id] = key;
+        link(id);
+    }
+
+    /*
+    Remove an id with the smallest key
+
+    @return The id
+     */
+    public int poll() {
+        // Every queued key is within one lap of the cursor, so this loop ends
+        int bucket = (int) (cursor % head.length);
+        while (head[bucket] < 0) {
+            cursor++;
+            bucket = bucket + 1 == head.length ? 0 : bucket + 1;
+        }
+        int id = head[bucket];
+        unlink(id);
+        stamp[id] = 0;
+        size--;
+        return id;
+    }
+
+    private void link(int id) {
+        // Put the id at the front of the bucket of its key
+        int bucket = (int) (keys[id] % head.length);
+        int first = head[bucket];
+        next[id] = first;
+        previous[id] = -1;
+        if (first >= 0) {
+            previous[first] = id;
+        }
+        head[bucket] = id;
+    }
+
+    private void unlink(int id) {
+        // Take the id out of its bucket's list
+        int before = previous[id];
+        int after = next[id];
+        if (before >= 0) {
+            next[before] = after;
+        } else {
+            head[(int) (keys[id] % head.length)] = after;
+        }
+        if (after >= 0) {
+            previous[after] = before;
+        }
+    }
+}
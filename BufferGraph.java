@@ -0,0 +1,263 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//BufferGraph reads a CSR graph from buffers instead of heap arrays
+
+package maze;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+Buffer-backed Graph
+
+Every array of the graph is a buffer, typically a view of a memory-mapped
+binary maze file (see BinaryMaze), so opening a graph costs no parsing and
+no copying: the operating system pages the data in as the search touches it.
+offHeapCopy() puts a loaded graph into direct buffers instead, which keeps
+even a huge maze out of the Java heap.
+Only absolute gets are used, so one instance can be searched by several
+threads at once.
+ */
+final class BufferGraph extends Graph {
+
+    // Names
+    private final ByteBuffer nameBytes;    // All names, UTF-8, back to back
+
+    private final IntBuffer nameStarts;    // Name of v is nameBytes[nameStarts[v] .. nameStarts[v+1]-1]
+
+    private final IntBuffer slots;         // Open-addressing name hash table of id+1 (0 = empty)
+
+    // Node data, indexed by node id
+    private final IntBuffer xs;            // X coordinate of each node
+
+    private final IntBuffer ys;            // Y coordinate of each node
+
+    // Adjacency in CSR form
+    private final IntBuffer offsets;       // offsets[v] is the index of v's first neighbour in targets
+
+    private final IntBuffer targets;       // Neighbour ids of every node, back to back
+
+    private final DoubleBuffer weights;    // Weight of each edge, parallel to targets (null = Euclidean)
+
+    /*
+    Constructor
+
+    @param nameBytes Name bytes
+
+    @param nameStarts Name start offsets (length size()+1)
+
+    @param slots Name hash table, built with NameTable.hash (length a power of two)
+
+    @param xs X coordinates by id
+
+    @param ys Y coordinates by id
+
+    @param offsets CSR offsets (length size()+1)
+
+    @param targets CSR neighbour ids
+
+    @param weights Edge weights parallel to targets, or null for Euclidean distances
+
+    @param digest Content hash if already known, otherwise null
+     */
+    BufferGraph(ByteBuffer nameBytes, IntBuffer nameStarts, IntBuffer slots, IntBuffer xs, IntBuffer ys,
+            IntBuffer offsets, IntBuffer targets, DoubleBuffer weights, String digest) {
+        super(digest);
+        this.nameBytes = nameBytes;
+        this.nameStarts = nameStarts;
+        this.slots = slots;
+        this.xs = xs;
+        this.ys = ys;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /*
+    Copy a graph into off-heap buffers
+
+    The copy has the same ids, names, coordinates and neighbour order, so it
+    has the same digest. Its memory belongs to the arena and is returned by the
+    garbage collector once the copy is unreachable.
+
+    @param graph Graph to copy
+
+    @param arena Owner of the buffers
+
+    @return Graph stored outside the Java heap
+     */
+    static BufferGraph offHeapCopy(Graph graph, OffHeapArena arena) {
+        int n = graph.size();
+        int arcs = graph.getEdgeCount() * 2;
+
+        // Coordinates and CSR adjacency, packed node by node (an edited graph can leave room between the lists)
+        IntBuffer xs = arena.allocate(4L * n).asIntBuffer();
+        IntBuffer ys = arena.allocate(4L * n).asIntBuffer();
+        IntBuffer offsets = arena.allocate(4L * (n + 1)).asIntBuffer();
+        IntBuffer targets = arena.allocate(4L * arcs).asIntBuffer();
+        DoubleBuffer weights = graph.hasWeights() ? arena.allocate(8L * arcs).asDoubleBuffer() : null;
+        int write = 0;
+        for (int v = 0; v < n; v++) {
+            xs.put(v, graph.getX(v));
+            ys.put(v, graph.getY(v));
+            offsets.put(v, write);
+            for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                if (weights != null) {
+                    weights.put(write, graph.weight(v, e));
+                }
+                targets.put(write++, graph.target(e));
+            }
+        }
+        offsets.put(n, arcs);
+
+        // Name bytes and their offsets
+        IntBuffer nameStarts = arena.allocate(4L * (n + 1)).asIntBuffer();
+        long nameByteCount = 0;
+        for (int v = 0; v < n; v++) {
+            nameStarts.put(v, (int) nameByteCount);
+            nameByteCount += graph.nameLength(v);
+            if (nameByteCount > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Node names take more than 2 GB");
+            }
+        }
+        nameStarts.put(n, (int) nameByteCount);
+        ByteBuffer nameBytes = arena.allocate(nameByteCount);
+        byte[] name = new byte[64];
+        for (int v = 0; v < n; v++) {
+            int length = graph.nameLength(v);
+            if (length > name.length) {
+                name = new byte[Math.max(length, name.length * 2)];
+            }
+            graph.getNameBytes(v, name, 0);
+            int start = nameStarts.get(v);
+            for (int i = 0; i < length; i++) {
+                nameBytes.put(start + i, name[i]);
+            }
+        }
+
+        // Name hash table, probed like NameTable's (direct buffers start zero-filled)
+        int slotCount = NameTable.tableSize(n);
+        IntBuffer slots = arena.allocate(4L * slotCount).asIntBuffer();
+        int mask = slotCount - 1;
+        for (int v = 0; v < n; v++) {
+            int slot = NameTable.hash(nameBytes, nameStarts.get(v), nameStarts.get(v + 1) - nameStarts.get(v)) & mask;
+            while (slots.get(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots.put(slot, v + 1);
+        }
+
+        return new BufferGraph(nameBytes, nameStarts, slots, xs, ys, offsets, targets, weights, null);
+    }
+
+    @Override
+    public int size() {
+        // Return the number of nodes in the graph
+        return xs.limit();
+    }
+
+    @Override
+    public int getEdgeCount() {
+        // Each undirected connection appears once in each endpoint's neighbour list
+        return targets.limit() / 2;
+    }
+
+    @Override
+    public int idOf(String name) {
+        ByteBuffer key = ByteBuffer.wrap(name.getBytes(StandardCharsets.UTF_8));
+        int length = key.limit();
+        int mask = slots.limit() - 1;
+        for (int slot = NameTable.hash(key, 0, length) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots.get(slot) - 1;
+            if (id < 0 || matches(id, key, length)) {
+                return id;
+            }
+        }
+    }
+
+    @Override
+    public String nameOf(int id) {
+        byte[] name = new byte[nameLength(id)];
+        getNameBytes(id, name, 0);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int getX(int id) {
+        return xs.get(id);
+    }
+
+    @Override
+    public int getY(int id) {
+        return ys.get(id);
+    }
+
+    @Override
+    public int edgeStart(int id) {
+        return offsets.get(id);
+    }
+
+    @Override
+    public int edgeEnd(int id) {
+        return offsets.get(id + 1);
+    }
+
+    @Override
+    public int target(int edge) {
+        return targets.get(edge);
+    }
+
+    @Override
+    public boolean hasWeights() {
+        return weights != null;
+    }
+
+    @Override
+    public double weight(int from, int edge) {
+        return weights != null ? weights.get(edge) : distance(from, targets.get(edge));
+    }
+
+    @Override
+    int nameLength(int id) {
+        return nameStarts.get(id + 1) - nameStarts.get(id);
+    }
+
+    @Override
+    void getNameBytes(int id, byte[] destination, int offset) {
+        int start = nameStarts.get(id);
+        int length = nameStarts.get(id + 1) - start;
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = nameBytes.get(start + i);
+        }
+    }
+
+    /*
+    Compare a stored name with a key
+
+    @param id Node id
+
+    @param key Name bytes being looked up
+
+    @param length Number of bytes in the key
+
+    @return true if the node has that name
+     */
+    private boolean matches(int id, ByteBuffer key, int length) {
+        int start = nameStarts.get(id);
+        if (nameStarts.get(id + 1) - start != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (nameBytes.get(start + i) != key.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
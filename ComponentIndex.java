@@ -0,0 +1,213 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//ComponentIndex labels the connected components of a graph for constant-time reachability checks
+
+package maze;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+Connected components of a Graph
+
+Every node gets the number of its component, so "can B be reached from A"
+is one comparison: connected(a, b). Connections are undirected, so being
+in the same component is exactly being reachable.
+
+The labels come from a concurrent union-find. Node ranges are handed to
+fork/join tasks; each task unions the two ends of every connection of its
+nodes. A union links the root with the larger id below the root with the
+smaller id by compare-and-set, and retries if another thread linked that
+root first. Because links always point to a smaller id there can be no
+cycles, and the root of every component ends up being its smallest id.
+Finds halve the path as they go (each node they pass is pointed at its
+grandparent), again by compare-and-set.
+
+Once every union is done, one pass in id order gives the components dense
+numbers 0 .. count-1, in the order of their smallest node id. The index is
+immutable and can be shared between threads.
+ */
+public final class ComponentIndex {
+
+    // Graphs with at least this many nodes are labelled in parallel by default
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // Nodes per task
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    private final int[] component;     // Component number of each node
+
+    private final int[] sizes;         // Number of nodes in each component
+
+    private ComponentIndex(int[] component, int[] sizes) {
+        this.component = component;
+        this.sizes = sizes;
+    }
+
+    /*
+    Label the components of a graph, in parallel if it is large and there is more than one core
+
+    @param graph Graph to label
+
+    @return The index
+     */
+    public static ComponentIndex build(Graph graph) {
+        boolean parallel = graph.size() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+        return build(graph, parallel ? ForkJoinPool.commonPool() : null);
+    }
+
+    /*
+    Label the components of a graph
+
+    @param graph Graph to label
+
+    @param pool Pool that runs the unions, or null to run them on the calling thread
+
+    @return The index
+     */
+    static ComponentIndex build(Graph graph, ForkJoinPool pool) {
+        int n = graph.size();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            parent.set(v, v);
+        }
+
+        // Union the ends of every connection
+        UnionTask all = new UnionTask(graph, parent, 0, n);
+        if (pool == null) {
+            all.union();
+        } else {
+            pool.invoke(all);
+        }
+
+        // A root is the smallest id of its component, so it is numbered before any other member
+        int[] component = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int root = find(parent, v);
+            component[v] = root == v ? count++ : component[root];
+        }
+        int[] sizes = new int[count];
+        for (int v = 0; v < n; v++) {
+            sizes[component[v]]++;
+        }
+        return new ComponentIndex(component, sizes);
+    }
+
+    /*
+    Find the root of a node, halving the path on the way
+
+    @param parent Union-find parents
+
+    @param node Node to start from
+
+    @return The root
+     */
+    private static int find(AtomicIntegerArray parent, int node) {
+        while (true) {
+            int up = parent.get(node);
+            if (up == node) {
+                return node;
+            }
+            int grand = parent.get(up);
+            if (grand != up) {
+                // Skip a level; if another thread changed it first, its value is just as good
+                parent.compareAndSet(node, up, grand);
+            }
+            node = grand;
+        }
+    }
+
+    /*
+    Put two nodes in the same set
+
+    @param parent Union-find parents
+
+    @param a First node
+
+    @param b Second node
+     */
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            int rootA = find(parent, a);
+            int rootB = find(parent, b);
+            if (rootA == rootB) {
+                return;
+            }
+            // Link the larger root below the smaller; fails if it stopped being a root meanwhile
+            int high = Math.max(rootA, rootB);
+            int low = Math.min(rootA, rootB);
+            if (parent.compareAndSet(high, high, low)) {
+                return;
+            }
+        }
+    }
+
+    /*
+    Fork/join task that unions the connections of a range of nodes
+     */
+    private static class UnionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Graph graph; // Tasks are never serialised
+        private final AtomicIntegerArray parent;
+        private final int from;         // First node of this task
+        private final int to;           // Node just past this task
+
+        UnionTask(Graph graph, AtomicIntegerArray parent, int from, int to) {
+            this.graph = graph;
+            this.parent = parent;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                union();
+                return;
+            }
+            // Split the node range in half
+            int middle = (from + to) >>> 1;
+            invokeAll(new UnionTask(graph, parent, from, middle), new UnionTask(graph, parent, middle, to));
+        }
+
+        void union() {
+            for (int v = from; v < to; v++) {
+                for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                    int w = graph.target(e);
+                    // Each connection is listed at both ends; the larger end unions it
+                    if (w < v) {
+                        ComponentIndex.union(parent, v, w);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean connected(int a, int b) {
+        // Return true if there is a path between the two nodes
+        return component[a] == component[b];
+    }
+
+    public int componentOf(int node) {
+        // Return the component number of a node (0 .. getComponentCount()-1)
+        return component[node];
+    }
+
+    public int sizeOf(int componentNumber) {
+        // Return the number of nodes in a component
+        return sizes[componentNumber];
+    }
+
+    public int getComponentCount() {
+        // Return the number of components (isolated nodes count as one each)
+        return sizes.length;
+    }
+}
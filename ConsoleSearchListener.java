@@ -0,0 +1,47 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//ConsoleSearchListener prints a search trace to the console for debugging
+
+package maze;
+
+/*
+Debug listener that prints every search event
+
+Attach it with Maze.setSearchListener(new ConsoleSearchListener(maze)).
+Printing is slow, so use it only on small mazes.
+ */
+public class ConsoleSearchListener implements SearchListener {
+
+    private final Maze maze;       // Maze whose node names are printed
+
+    /*
+    Constructor
+
+    @param maze Maze being searched (used to turn node ids into names)
+     */
+    public ConsoleSearchListener(Maze maze) {
+        this.maze = maze;
+    }
+
+    @Override
+    public void nodeExpanded(int node) {
+        // Print the name of the node being explored
+        System.out.println("Exploring node: " + maze.getGraph().nameOf(node));
+    }
+
+    @Override
+    public void edgeRelaxed(int from, int to) {
+        // Print which node is being added to the queue
+        System.out.println("  -> Adding " + maze.getGraph().nameOf(to) + " to queue");
+    }
+
+    @Override
+    public void goalFound(int goal) {
+        // Print success message
+        System.out.println("Found " + maze.getGraph().nameOf(goal) + " node!");
+    }
+}
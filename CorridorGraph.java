@@ -0,0 +1,320 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//CorridorGraph collapses corridors of degree-2 nodes into single weighted edges
+
+package maze;
+
+import java.util.Arrays;
+
+/*
+Corridor-compressed view of a Graph
+
+Most maze nodes are corridor nodes with exactly two neighbours. A search
+can only walk straight through them, so each chain of corridor nodes
+between two junctions is replaced by one edge that remembers the chain:
+
+    junction u - c1 - c2 - ... - ck - junction w   becomes   u --(k+1)--> w
+
+Junctions are the nodes whose degree is not 2, plus the nodes passed as
+"keep" (e.g., START and EXIT), so queries between kept nodes never start or
+end inside a corridor. Every compressed edge has two weights: its number
+of original edges (for HOPS) and the sum of the original weights (for
+DISTANCE). Two junctions can be joined by several corridors of different
+lengths, so parallel edges are kept.
+
+findPath runs Dijkstra on the small graph, where whole-number hop weights
+use the bucket queue, then expands every compressed edge back into its
+corridor nodes. The path has the same length (or weight) as a search of
+the full graph.
+
+Corridors that form a closed loop with no junction on them cannot be
+reached from a junction and are left out. A CorridorGraph is immutable and
+can be shared between threads.
+ */
+public final class CorridorGraph {
+
+    private static final DijkstraEngine ENGINE = new DijkstraEngine(); // Engines keep no state
+
+    private final Graph original;          // Graph that was compressed
+
+    private final ArrayGraph hopGraph;     // Junctions, edge weight = number of original edges
+
+    private final ArrayGraph distanceGraph; // Same junctions and edges, weight = total original weight
+
+    private final int[] compressedOf;      // Compressed id of each original node (-1 inside a corridor)
+
+    private final int[] originalOf;        // Original id of each compressed node
+
+    private final int[] arcChain;          // Corridor of each compressed edge (~c when walked backwards)
+
+    private final int[] chainStart;        // Corridor c's inner nodes are chainNodes[chainStart[c] .. chainStart[c+1]-1]
+
+    private final int[] chainNodes;        // Inner nodes of every corridor, in order from its first junction
+
+    private CorridorGraph(Graph original, ArrayGraph hopGraph, ArrayGraph distanceGraph, int[] compressedOf,
+            int[] originalOf, int[] arcChain, int[] chainStart, int[] chainNodes) {
+        this.original = original;
+        this.hopGraph = hopGraph;
+        this.distanceGraph = distanceGraph;
+        this.compressedOf = compressedOf;
+        this.originalOf = originalOf;
+        this.arcChain = arcChain;
+        this.chainStart = chainStart;
+        this.chainNodes = chainNodes;
+    }
+
+    /*
+    Compress a graph
+
+    @param graph Graph to compress
+
+    @param keep Ids of nodes that must stay junctions (ids below 0 are ignored)
+
+    @return The compressed view
+     */
+    public static CorridorGraph build(Graph graph, int... keep) {
+        int n = graph.size();
+
+        // Junctions: degree other than 2, or asked for
+        boolean[] junction = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            junction[v] = graph.degree(v) != 2;
+        }
+        for (int v : keep) {
+            if (v >= 0) {
+                junction[v] = true;
+            }
+        }
+        int[] compressedOf = new int[n];
+        int k = 0;
+        for (int v = 0; v < n; v++) {
+            compressedOf[v] = junction[v] ? k++ : -1;
+        }
+        int[] originalOf = new int[k];
+        for (int v = 0; v < n; v++) {
+            if (junction[v]) {
+                originalOf[compressedOf[v]] = v;
+            }
+        }
+
+        // Walk every corridor once, from the junction where it is first met
+        int[] chainFrom = new int[16];
+        int[] chainTo = new int[16];
+        double[] chainHops = new double[16];
+        double[] chainWeight = new double[16];
+        int[] chainStart = new int[17];
+        int[] chainNodes = new int[16];
+        int chains = 0;
+        int nodeCount = 0;
+        boolean[] walked = new boolean[n];     // Corridor nodes already in a chain
+        for (int u = 0; u < n; u++) {
+            if (!junction[u]) {
+                continue;
+            }
+            for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                int next = graph.target(e);
+                if (junction[next] ? next <= u : walked[next]) {
+                    // A direct edge is recorded from its smaller end; a corridor from where it was first met
+                    continue;
+                }
+                double hops = 1;
+                double weight = graph.weight(u, e);
+                int previous = u;
+                int current = next;
+                int first = nodeCount;
+                while (!junction[current]) {
+                    walked[current] = true;
+                    if (nodeCount == chainNodes.length) {
+                        chainNodes = Arrays.copyOf(chainNodes, nodeCount * 2);
+                    }
+                    chainNodes[nodeCount++] = current;
+                    // Leave by the edge that does not go back
+                    int out = graph.edgeStart(current);
+                    if (graph.target(out) == previous) {
+                        out++;
+                    }
+                    hops++;
+                    weight += graph.weight(current, out);
+                    previous = current;
+                    current = graph.target(out);
+                }
+                if (current == u) {
+                    // A corridor that comes back to where it started never shortens a path
+                    nodeCount = first;
+                    continue;
+                }
+                if (chains == chainFrom.length) {
+                    int capacity = chains * 2;
+                    chainFrom = Arrays.copyOf(chainFrom, capacity);
+                    chainTo = Arrays.copyOf(chainTo, capacity);
+                    chainHops = Arrays.copyOf(chainHops, capacity);
+                    chainWeight = Arrays.copyOf(chainWeight, capacity);
+                    chainStart = Arrays.copyOf(chainStart, capacity + 1);
+                }
+                chainFrom[chains] = compressedOf[u];
+                chainTo[chains] = compressedOf[current];
+                chainHops[chains] = hops;
+                chainWeight[chains] = weight;
+                chainStart[chains] = first;
+                chains++;
+            }
+        }
+        chainStart[chains] = nodeCount;
+
+        // CSR of the junctions; each corridor is an edge in both directions
+        int[] offsets = new int[k + 1];
+        for (int c = 0; c < chains; c++) {
+            offsets[chainFrom[c] + 1]++;
+            offsets[chainTo[c] + 1]++;
+        }
+        for (int v = 0; v < k; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[k]];
+        int[] arcChain = new int[targets.length];
+        double[] hopWeights = new double[targets.length];
+        double[] distanceWeights = new double[targets.length];
+        int[] fill = Arrays.copyOf(offsets, k);
+        for (int c = 0; c < chains; c++) {
+            int a = fill[chainFrom[c]]++;
+            targets[a] = chainTo[c];
+            arcChain[a] = c;
+            hopWeights[a] = chainHops[c];
+            distanceWeights[a] = chainWeight[c];
+            int b = fill[chainTo[c]]++;
+            targets[b] = chainFrom[c];
+            arcChain[b] = ~c;
+            hopWeights[b] = chainHops[c];
+            distanceWeights[b] = chainWeight[c];
+        }
+
+        // Junction names and coordinates
+        NameTable names = NameTable.copyOf(graph, originalOf);
+        int[] xs = new int[k];
+        int[] ys = new int[k];
+        for (int c = 0; c < k; c++) {
+            xs[c] = graph.getX(originalOf[c]);
+            ys[c] = graph.getY(originalOf[c]);
+        }
+
+        return new CorridorGraph(graph,
+                new ArrayGraph(names, xs, ys, offsets, targets, hopWeights),
+                new ArrayGraph(names, xs, ys, offsets, targets, distanceWeights),
+                compressedOf, originalOf, arcChain, Arrays.copyOf(chainStart, chains + 1),
+                Arrays.copyOf(chainNodes, nodeCount));
+    }
+
+    /*
+    Find a shortest path between two kept nodes
+
+    @param context Scratch state for the search (its path is overwritten)
+
+    @param source Original id of the start node
+
+    @param target Original id of the goal node
+
+    @param metric HOPS for the fewest edges, DISTANCE for the smallest total weight
+
+    @return Original node ids from source to target, or null if either node is inside a corridor
+            (search the original graph instead) or there is no path (then the array is empty)
+     */
+    public int[] findPath(SearchContext context, int source, int target, Maze.Metric metric) {
+        int from = compressedOf[source];
+        int to = compressedOf[target];
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        ArrayGraph graph = metric == Maze.Metric.DISTANCE ? distanceGraph : hopGraph;
+        if (!ENGINE.search(graph, context, from, to)) {
+            return new int[0];
+        }
+        return expand(graph, context.getPath(), context.getPathLength());
+    }
+
+    /*
+    Turn a path of junctions back into the full path
+
+    @param graph Compressed graph the path was found in
+
+    @param path Compressed ids
+
+    @param length Number of compressed ids
+
+    @return Original ids, every corridor node included
+     */
+    private int[] expand(ArrayGraph graph, int[] path, int length) {
+        // Pick the corridor used for each step first, so the result can be sized exactly
+        int[] chosen = new int[Math.max(length - 1, 0)];
+        int total = length;
+        for (int i = 0; i + 1 < length; i++) {
+            int a = path[i];
+            int b = path[i + 1];
+            // Of parallel corridors, the search used the lightest one
+            int best = -1;
+            for (int e = graph.edgeStart(a), end = graph.edgeEnd(a); e < end; e++) {
+                if (graph.target(e) == b && (best < 0 || graph.weight(a, e) < graph.weight(a, best))) {
+                    best = e;
+                }
+            }
+            int chain = arcChain[best];
+            chosen[i] = chain;
+            int c = chain >= 0 ? chain : ~chain;
+            total += chainStart[c + 1] - chainStart[c];
+        }
+
+        int[] result = new int[total];
+        int write = 0;
+        for (int i = 0; i < length; i++) {
+            result[write++] = originalOf[path[i]];
+            if (i + 1 == length) {
+                break;
+            }
+            int chain = chosen[i];
+            if (chain >= 0) {
+                for (int j = chainStart[chain]; j < chainStart[chain + 1]; j++) {
+                    result[write++] = chainNodes[j];
+                }
+            } else {
+                int c = ~chain;
+                for (int j = chainStart[c + 1] - 1; j >= chainStart[c]; j--) {
+                    result[write++] = chainNodes[j];
+                }
+            }
+        }
+        return result;
+    }
+
+    public Graph getOriginal() {
+        // Return the graph that was compressed
+        return original;
+    }
+
+    public Graph getCompressed(Maze.Metric metric) {
+        // Return the junction graph, weighted by edge count (HOPS) or total weight (DISTANCE)
+        return metric == Maze.Metric.DISTANCE ? distanceGraph : hopGraph;
+    }
+
+    public int compressedId(int node) {
+        // Return the junction id of an original node, or -1 if it is inside a corridor
+        return compressedOf[node];
+    }
+
+    public int originalId(int junction) {
+        // Return the original id of a junction
+        return originalOf[junction];
+    }
+
+    public int getJunctionCount() {
+        // Return the number of nodes left after compression
+        return originalOf.length;
+    }
+
+    public int getCorridorCount() {
+        // Return the number of compressed edges
+        return chainStart.length - 1;
+    }
+}
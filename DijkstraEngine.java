@@ -0,0 +1,178 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//DijkstraEngine finds the path with the smallest total weight
+
+package maze;
+
+/*
+Dijkstra's algorithm on weighted connections
+
+Finds the path with the smallest total weight (see Graph.weight) instead of
+the one with the fewest connections. The priority queue is chosen from the
+weights of the graph:
+
+- every weight a whole number up to Graph.MAX_SMALL_WEIGHT: Dial's bucket
+  queue (BucketQueue), where every queue operation is O(1)
+- otherwise: a 4-ary IntMinHeap with decrease-key
+
+Weights are never negative, so the bit pattern of a double cost orders the
+same way as the cost itself and can be used as the heap key directly.
+
+The total weight of the path is stored with SearchContext.setPathCost.
+ */
+public class DijkstraEngine implements SearchEngine {
+
+    @Override
+    public boolean search(Graph graph, SearchContext context, int source, int target) {
+        // Start a new query (bumps the epoch instead of resetting every node)
+        context.begin(graph.size());
+        context.beginWeighted(graph.size());
+
+        int maxWeight = graph.getMaxIntegerWeight();
+        if (maxWeight >= 0) {
+            return searchBuckets(graph, context, source, target, maxWeight);
+        }
+        return searchHeap(graph, context, source, target);
+    }
+
+    /*
+    Dijkstra with Dial's bucket queue (whole-number weights)
+
+    @return true if the goal was reached
+     */
+    private static boolean searchBuckets(Graph graph, SearchContext context, int source, int target,
+            int maxWeight) {
+        int[] parent = context.getParent();
+        int[] visited = context.getVisited();
+        double[] cost = context.getCost();
+        BucketQueue open = context.getBuckets();
+        open.reset(graph.size(), maxWeight);
+        int epoch = context.getEpoch();
+        SearchListener listener = context.getListener();
+
+        visited[source] = epoch;
+        parent[source] = -1;
+        cost[source] = 0;
+        open.add(source, 0);
+
+        int expanded = 0;
+        long edges = 0;
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            expanded++;
+            if (listener != null) {
+                listener.nodeExpanded(current);
+            }
+            if (current == target) {
+                return finish(context, target, cost[target], expanded, edges, listener);
+            }
+
+            // Whole-number costs are exact in a double up to 2^53
+            long base = (long) cost[current];
+            int start = graph.edgeStart(current);
+            int end = graph.edgeEnd(current);
+            edges += end - start;
+            for (int e = start; e < end; e++) {
+                int next = graph.target(e);
+                long candidate = base + (long) graph.weight(current, e);
+                if (visited[next] != epoch) {
+                    visited[next] = epoch;
+                    parent[next] = current;
+                    cost[next] = candidate;
+                    open.add(next, candidate);
+                    if (listener != null) {
+                        listener.edgeRelaxed(current, next);
+                    }
+                } else if (candidate < cost[next] && open.contains(next)) {
+                    parent[next] = current;
+                    cost[next] = candidate;
+                    open.decreaseKey(next, candidate);
+                }
+            }
+        }
+
+        context.setExpandedCount(expanded);
+        context.setEdgesInspected(edges);
+        return false;
+    }
+
+    /*
+    Dijkstra with a 4-ary heap (any non-negative weights)
+
+    @return true if the goal was reached
+     */
+    private static boolean searchHeap(Graph graph, SearchContext context, int source, int target) {
+        int[] parent = context.getParent();
+        int[] visited = context.getVisited();
+        double[] cost = context.getCost();
+        IntMinHeap open = context.getWeightedHeap();
+        open.ensureCapacity(graph.size());
+        int epoch = context.getEpoch();
+        SearchListener listener = context.getListener();
+
+        visited[source] = epoch;
+        parent[source] = -1;
+        cost[source] = 0;
+        open.add(source, Double.doubleToLongBits(0.0));
+
+        int expanded = 0;
+        long edges = 0;
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            expanded++;
+            if (listener != null) {
+                listener.nodeExpanded(current);
+            }
+            if (current == target) {
+                return finish(context, target, cost[target], expanded, edges, listener);
+            }
+
+            double base = cost[current];
+            int start = graph.edgeStart(current);
+            int end = graph.edgeEnd(current);
+            edges += end - start;
+            for (int e = start; e < end; e++) {
+                int next = graph.target(e);
+                double candidate = base + graph.weight(current, e);
+                if (visited[next] != epoch) {
+                    visited[next] = epoch;
+                    parent[next] = current;
+                    cost[next] = candidate;
+                    open.add(next, Double.doubleToLongBits(candidate));
+                    if (listener != null) {
+                        listener.edgeRelaxed(current, next);
+                    }
+                } else if (candidate < cost[next] && open.contains(next)) {
+                    parent[next] = current;
+                    cost[next] = candidate;
+                    open.decreaseKey(next, Double.doubleToLongBits(candidate));
+                }
+            }
+        }
+
+        context.setExpandedCount(expanded);
+        context.setEdgesInspected(edges);
+        return false;
+    }
+
+    /*
+    Record a found path and its statistics
+
+    @return true
+     */
+    private static boolean finish(SearchContext context, int target, double pathCost, int expanded, long edges,
+            SearchListener listener) {
+        if (listener != null) {
+            listener.goalFound(target);
+        }
+        context.setExpandedCount(expanded);
+        context.setEdgesInspected(edges);
+        context.tracePath(target);
+        context.setPathCost(pathCost);
+        return true;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//DirectionOptimizingBfsEngine switches between top-down and bottom-up BFS steps
+
+package maze;
+
+import java.util.Arrays;
+
+/*
+Direction-optimizing breadth-first search
+
+A top-down step expands the frontier: every frontier node checks all of its
+neighbours. When the frontier gets large, most of those checks hit nodes that
+are already visited. A bottom-up step does the reverse: every unvisited node
+looks for any neighbour in the frontier and stops at the first one it finds.
+
+The engine starts top-down and switches to bottom-up once the edges leaving
+the frontier exceed 1/ALPHA of the edges of still-unvisited nodes. It switches
+back once the frontier falls below 1/BETA of the graph. Visited nodes are kept
+in a long[] bitset. The frontier is a bitset during bottom-up steps and a
+plain queue during top-down steps, so long thin corridors do not pay for a
+full bitset scan at every level.
+
+Levels are processed in order, so the path has the same length as plain BFS.
+SearchContext.getEdgesInspected() reports the edge checks for comparison.
+ */
+public class DirectionOptimizingBfsEngine implements SearchEngine {
+
+    // Go bottom-up when frontier edges > unvisited edges / ALPHA
+    private static final int ALPHA = 14;
+
+    // Go back top-down when frontier nodes < graph size / BETA
+    private static final int BETA = 24;
+
+    @Override
+    public boolean search(Graph graph, SearchContext context, int source, int target) {
+        int n = graph.size();
+        int words = (n + 63) >>> 6;   // Bitset words used by this graph (the arrays may be longer)
+        context.begin(n);
+        context.beginBackward(n);
+        context.beginBitsets(n);
+
+        int[] parent = context.getParent();
+        long[] visited = context.getVisitedBits();
+        long[] frontierBits = context.getFrontierBits();
+        long[] nextBits = context.getNextBits();
+        SearchListener listener = context.getListener();
+
+        // Two queues for top-down steps: the current level and the next one
+        int[] queue = context.getQueue();
+        int[] nextQueue = context.getBackQueue();
+        int frontierSize = 1;
+        queue[0] = source;
+        visited[source >>> 6] |= 1L << source;
+        parent[source] = -1;
+
+        // Edges leaving the frontier, and edges of nodes not visited yet
+        long frontierEdges = graph.degree(source);
+        long unvisitedEdges = 2L * graph.getEdgeCount() - frontierEdges;
+        boolean topDown = true;
+        int expanded = 0;
+        long edges = 0;
+
+        while (frontierSize > 0 && (visited[target >>> 6] & (1L << target)) == 0) {
+            expanded += frontierSize;
+
+            // Pick the direction for this level, converting the frontier if it changes
+            if (topDown && frontierEdges > unvisitedEdges / ALPHA) {
+                topDown = false;
+                for (int i = 0; i < frontierSize; i++) {
+                    frontierBits[queue[i] >>> 6] |= 1L << queue[i];
+                }
+            } else if (!topDown && frontierSize < n / BETA) {
+                topDown = true;
+                frontierSize = toQueue(frontierBits, words, queue);
+                Arrays.fill(frontierBits, 0, words, 0L);
+            }
+
+            int nextSize = 0;
+            long nextEdges = 0;
+            if (topDown) {
+                // Top-down: every frontier node checks all its neighbours
+                for (int i = 0; i < frontierSize; i++) {
+                    int current = queue[i];
+                    if (listener != null) {
+                        listener.nodeExpanded(current);
+                    }
+                    int start = graph.edgeStart(current);
+                    int end = graph.edgeEnd(current);
+                    edges += end - start;
+                    for (int e = start; e < end; e++) {
+                        int next = graph.target(e);
+                        if ((visited[next >>> 6] & (1L << next)) == 0) {
+                            visited[next >>> 6] |= 1L << next;
+                            parent[next] = current;
+                            nextQueue[nextSize++] = next;
+                            nextEdges += graph.degree(next);
+                            if (listener != null) {
+                                listener.edgeRelaxed(current, next);
+                            }
+                        }
+                    }
+                }
+                // The next level becomes the current one
+                int[] swap = queue;
+                queue = nextQueue;
+                nextQueue = swap;
+            } else {
+                if (listener != null) {
+                    // Only walk the frontier bitset when someone wants the events
+                    for (int w = 0; w < words; w++) {
+                        for (long bits = frontierBits[w]; bits != 0; bits &= bits - 1) {
+                            listener.nodeExpanded((w << 6) + Long.numberOfTrailingZeros(bits));
+                        }
+                    }
+                }
+                // Bottom-up: every unvisited node looks for a parent in the frontier
+                for (int w = 0; w < words; w++) {
+                    long unvisited = ~visited[w];
+                    if (w == words - 1 && (n & 63) != 0) {
+                        // Ignore the bits past the last node
+                        unvisited &= (1L << n) - 1;
+                    }
+                    for (; unvisited != 0; unvisited &= unvisited - 1) {
+                        int current = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+                        int end = graph.edgeEnd(current);
+                        for (int e = graph.edgeStart(current); e < end; e++) {
+                            edges++;
+                            int candidate = graph.target(e);
+                            if ((frontierBits[candidate >>> 6] & (1L << candidate)) != 0) {
+                                // Found a parent; the rest of the neighbours need no check
+                                visited[w] |= 1L << current;
+                                nextBits[w] |= 1L << current;
+                                parent[current] = candidate;
+                                nextSize++;
+                                nextEdges += end - graph.edgeStart(current);
+                                if (listener != null) {
+                                    listener.edgeRelaxed(candidate, current);
+                                }
+                                break;
+                            }
+                        }
+                    }
+                }
+                // The next level becomes the current one
+                long[] swap = frontierBits;
+                frontierBits = nextBits;
+                nextBits = swap;
+                Arrays.fill(nextBits, 0, words, 0L);
+            }
+
+            frontierSize = nextSize;
+            frontierEdges = nextEdges;
+            unvisitedEdges -= nextEdges;
+        }
+
+        context.setExpandedCount(expanded);
+        context.setEdgesInspected(edges);
+        if ((visited[target >>> 6] & (1L << target)) == 0) {
+            return false;
+        }
+        if (listener != null) {
+            listener.goalFound(target);
+        }
+        context.tracePath(target);
+        return true;
+    }
+
+    /*
+    Copy the set bits of a bitset into a queue
+
+    @param bits Bitset to read
+
+    @param words Number of words in use
+
+    @param queue Queue to fill
+
+    @return Number of nodes written
+     */
+    private static int toQueue(long[] bits, int words, int[] queue) {
+        int size = 0;
+        for (int w = 0; w < words; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                queue[size++] = (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return size;
+    }
+}
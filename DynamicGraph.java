@@ -0,0 +1,270 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//DynamicGraph is a CSR graph whose connections can be added and removed after loading
+
+package maze;
+
+/*
+Editable Graph
+
+Starts as a copy of the connections of a loaded graph; names and
+coordinates are read from that graph, which never changes. Each node owns
+a range of the targets array:
+
+    targets[start[v] .. end[v]-1]    neighbours of v
+    targets[end[v] .. limit[v]-1]    free room for more neighbours
+
+Removing a connection moves the last neighbour of each end into its place,
+so it is O(degree). Adding one uses the free room; when a node has none,
+its neighbours move to a range twice as large at the end of the array.
+Moves are rare (amortised O(1) per added connection). When the array is
+full it is copied into one twice the size of the live neighbour lists,
+leaving out the ranges that moved nodes left behind.
+
+Not thread-safe: Maze lets a DynamicGraph be read by several threads or
+changed by one, never both at once.
+ */
+final class DynamicGraph extends Graph {
+
+    private final Graph base;              // Graph the maze was loaded as (names and coordinates)
+
+    private final int[] start;             // Index of each node's first neighbour in targets
+
+    private final int[] end;               // Index just past each node's last neighbour
+
+    private final int[] limit;             // Index just past each node's room in targets
+
+    private int[] targets;                 // Neighbour ids of every node, with free room
+
+    private double[] weights;              // Weight of each edge, parallel to targets (null = Euclidean)
+
+    private int used;                      // Length of targets given out to nodes so far
+
+    private int edgeCount;                 // Number of undirected connections
+
+    /*
+    Constructor copies the connections of a graph
+
+    @param base Graph to start from
+     */
+    DynamicGraph(Graph base) {
+        super(null);
+        this.base = base;
+        int n = base.size();
+        start = new int[n];
+        end = new int[n];
+        limit = new int[n];
+        // Leave some room at the end so the first moves do not have to grow the arrays
+        int arcs = base.getEdgeCount() * 2;
+        targets = new int[arcs + arcs / 4 + 16];
+        weights = base.hasWeights() ? new double[targets.length] : null;
+        for (int v = 0; v < n; v++) {
+            start[v] = used;
+            for (int e = base.edgeStart(v), stop = base.edgeEnd(v); e < stop; e++) {
+                if (weights != null) {
+                    weights[used] = base.weight(v, e);
+                }
+                targets[used++] = base.target(e);
+            }
+            end[v] = used;
+            limit[v] = used;
+        }
+        edgeCount = base.getEdgeCount();
+    }
+
+    /*
+    Connect two nodes
+
+    @param a First node id
+
+    @param b Second node id
+
+    @return true if the connection is new (false if it exists or a == b)
+     */
+    boolean addConnection(int a, int b) {
+        if (a == b || hasConnection(a, b)) {
+            return false;
+        }
+        // A new connection gets the default weight, like a file row without weight columns
+        double weight = distance(a, b);
+        append(a, b, weight);
+        append(b, a, weight);
+        edgeCount++;
+        contentChanged();
+        return true;
+    }
+
+    /*
+    Disconnect two nodes
+
+    @param a First node id
+
+    @param b Second node id
+
+    @return true if they were connected
+     */
+    boolean removeConnection(int a, int b) {
+        if (!remove(a, b)) {
+            return false;
+        }
+        remove(b, a);
+        edgeCount--;
+        contentChanged();
+        return true;
+    }
+
+    boolean hasConnection(int a, int b) {
+        // Return true if b is a neighbour of a
+        for (int e = start[a]; e < end[a]; e++) {
+            if (targets[e] == b) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void append(int v, int w, double weight) {
+        // Add w to v's neighbours, moving them to a larger range if v has no room left
+        if (end[v] == limit[v]) {
+            move(v);
+        }
+        if (weights != null) {
+            weights[end[v]] = weight;
+        }
+        targets[end[v]++] = w;
+    }
+
+    private boolean remove(int v, int w) {
+        // Take w out of v's neighbours; the last neighbour fills the gap
+        for (int e = start[v]; e < end[v]; e++) {
+            if (targets[e] == w) {
+                int last = --end[v];
+                targets[e] = targets[last];
+                if (weights != null) {
+                    weights[e] = weights[last];
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void move(int v) {
+        // Give v a range twice its degree (at least 4) at the end of the array
+        int degree = end[v] - start[v];
+        int room = Math.max(4, degree * 2);
+        if (used + room > targets.length) {
+            // Full: drop the ranges left behind by earlier moves, keeping half of the new array free
+            repack(((long) edgeCount * 2 + room) * 2);
+        }
+        System.arraycopy(targets, start[v], targets, used, degree);
+        if (weights != null) {
+            System.arraycopy(weights, start[v], weights, used, degree);
+        }
+        start[v] = used;
+        end[v] = used + degree;
+        limit[v] = used + room;
+        used += room;
+    }
+
+    private void repack(long capacity) {
+        // Copy every node's neighbours, back to back in id order, into new arrays
+        // (a moved node's range can lie anywhere, so the old array cannot be packed in place)
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("Too many connections for one graph");
+        }
+        int[] packed = new int[(int) capacity];
+        double[] packedWeights = weights == null ? null : new double[packed.length];
+        int write = 0;
+        for (int v = 0; v < start.length; v++) {
+            int degree = end[v] - start[v];
+            System.arraycopy(targets, start[v], packed, write, degree);
+            if (weights != null) {
+                System.arraycopy(weights, start[v], packedWeights, write, degree);
+            }
+            start[v] = write;
+            write += degree;
+            end[v] = write;
+            limit[v] = write;
+        }
+        targets = packed;
+        weights = packedWeights;
+        used = write;
+    }
+
+    @Override
+    public int size() {
+        // Return the number of nodes in the graph
+        return start.length;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        // Return the number of undirected connections
+        return edgeCount;
+    }
+
+    @Override
+    public int idOf(String name) {
+        return base.idOf(name);
+    }
+
+    @Override
+    public String nameOf(int id) {
+        return base.nameOf(id);
+    }
+
+    @Override
+    public int getX(int id) {
+        return base.getX(id);
+    }
+
+    @Override
+    public int getY(int id) {
+        return base.getY(id);
+    }
+
+    @Override
+    public int edgeStart(int id) {
+        return start[id];
+    }
+
+    @Override
+    public int edgeEnd(int id) {
+        return end[id];
+    }
+
+    @Override
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    @Override
+    public boolean hasWeights() {
+        return weights != null;
+    }
+
+    @Override
+    public double weight(int from, int edge) {
+        return weights != null ? weights[edge] : distance(from, targets[edge]);
+    }
+
+    @Override
+    public int degree(int id) {
+        return end[id] - start[id];
+    }
+
+    @Override
+    int nameLength(int id) {
+        return base.nameLength(id);
+    }
+
+    @Override
+    void getNameBytes(int id, byte[] destination, int offset) {
+        base.getNameBytes(id, destination, offset);
+    }
+}
@@ -0,0 +1,294 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//Graph class is the immutable compressed-sparse-row (CSR) graph the searches run on
+
+package maze;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/*
+Immutable CSR graph of a maze
+
+Every node name is mapped to a dense int id (0 .. size()-1). The neighbours of
+node v are target(edgeStart(v)) .. target(edgeEnd(v)-1), so a search step is
+two array reads instead of a string-keyed hash lookup.
+
+Each connection has a weight (its length). Maze files may give it in the
+optional weight columns; otherwise it is the Euclidean distance between the
+coordinates of the two nodes.
+
+The arrays live in a subclass: ArrayGraph keeps them on the heap, BufferGraph
+reads them from buffers such as a memory-mapped binary maze file. The one
+exception to immutability is DynamicGraph, whose connections can be added
+and removed after loading.
+ */
+public abstract class Graph {
+
+    private volatile String digest;        // Content hash, computed on first use
+
+    private volatile int maxEdgeSpan = -1; // Longest connection in grid steps, computed on first use
+
+    private volatile int maxIntegerWeight = -2; // See getMaxIntegerWeight (-2 = not computed yet)
+
+    // Largest whole-number weight counted by getMaxIntegerWeight (bigger weights count as general)
+    static final int MAX_SMALL_WEIGHT = 1 << 16;
+
+    /*
+    Constructor is package-private, graphs are created by GraphBuilder, MazeParser and BinaryMaze
+
+    @param digest Content hash if already known (e.g., stored in a binary maze), otherwise null
+     */
+    Graph(String digest) {
+        this.digest = digest;
+    }
+
+    // Return the number of nodes in the graph
+    public abstract int size();
+
+    // Return the number of undirected connections
+    public abstract int getEdgeCount();
+
+    /*
+    Look up the id of a node by name
+
+    @param name Name of the node
+
+    @return The node id, or -1 if there is no node with that name
+     */
+    public abstract int idOf(String name);
+
+    // Return the name of the node with the given id
+    public abstract String nameOf(int id);
+
+    // Return the x-coordinate of the node with the given id
+    public abstract int getX(int id);
+
+    // Return the y-coordinate of the node with the given id
+    public abstract int getY(int id);
+
+    // Return the index of the node's first neighbour in the target array
+    public abstract int edgeStart(int id);
+
+    // Return the index just past the node's last neighbour in the target array
+    public abstract int edgeEnd(int id);
+
+    // Return the neighbour id stored at the given edge index
+    public abstract int target(int edge);
+
+    /*
+    Forget the values computed on first use (digest, longest connection, largest weight)
+
+    Called by DynamicGraph after every change, so they are computed again when next needed.
+     */
+    void contentChanged() {
+        digest = null;
+        maxEdgeSpan = -1;
+        maxIntegerWeight = -2;
+    }
+
+    // Return true if the maze file gave weights (otherwise every weight is a Euclidean distance)
+    public abstract boolean hasWeights();
+
+    /*
+    Weight of a connection
+
+    @param from Id of the node whose neighbour list holds the edge
+
+    @param edge Edge index, between edgeStart(from) and edgeEnd(from)
+
+    @return The weight from the file, or the Euclidean distance between the two nodes
+     */
+    public abstract double weight(int from, int edge);
+
+    /*
+    Euclidean distance between two nodes, the default weight of a connection
+
+    @param from First node id
+
+    @param to Second node id
+
+    @return Straight-line distance between their coordinates
+     */
+    public double distance(int from, int to) {
+        double dx = (double) getX(from) - getX(to);
+        double dy = (double) getY(from) - getY(to);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    public int degree(int id) {
+        // Return the number of neighbours of the node
+        return edgeEnd(id) - edgeStart(id);
+    }
+
+    // Return the number of UTF-8 bytes in the node's name
+    abstract int nameLength(int id);
+
+    /*
+    Copy the UTF-8 bytes of a node's name
+
+    @param id Node id
+
+    @param destination Array to copy into
+
+    @param offset Index of the first byte written
+     */
+    abstract void getNameBytes(int id, byte[] destination, int offset);
+
+    /*
+    Longest connection of the graph, measured in grid steps
+
+    Used by A*: no path can be shorter than the Manhattan distance divided by
+    this, so the heuristic never overestimates even when a connection jumps
+    over several grid cells.
+
+    @return Largest |dx| + |dy| over all connections (0 if there are none)
+     */
+    public int getMaxEdgeSpan() {
+        int span = maxEdgeSpan;
+        if (span < 0) {
+            long longest = 0;
+            for (int v = 0, n = size(); v < n; v++) {
+                for (int e = edgeStart(v), end = edgeEnd(v); e < end; e++) {
+                    int w = target(e);
+                    longest = Math.max(longest,
+                            Math.abs((long) getX(v) - getX(w)) + Math.abs((long) getY(v) - getY(w)));
+                }
+            }
+            span = (int) Math.min(longest, Integer.MAX_VALUE);
+            maxEdgeSpan = span;
+        }
+        return span;
+    }
+
+    /*
+    Largest connection weight, if every weight is a small whole number
+
+    Dijkstra can then use a bucket queue instead of a heap.
+
+    @return The largest weight if all weights are whole numbers up to MAX_SMALL_WEIGHT, otherwise -1
+     */
+    public int getMaxIntegerWeight() {
+        int result = maxIntegerWeight;
+        if (result == -2) {
+            result = 0;
+            for (int v = 0, n = size(); v < n && result >= 0; v++) {
+                for (int e = edgeStart(v), end = edgeEnd(v); e < end; e++) {
+                    double w = weight(v, e);
+                    if (w != Math.rint(w) || w > MAX_SMALL_WEIGHT) {
+                        result = -1;
+                        break;
+                    }
+                    result = Math.max(result, (int) w);
+                }
+            }
+            maxIntegerWeight = result;
+        }
+        return result;
+    }
+
+    /*
+    Content hash of the graph
+
+    Two graphs have the same digest when they have the same nodes (names and
+    coordinates, in the same id order) and the same connections, e.g. when
+    the same maze file is loaded twice. Weights from the file are part of the
+    content; default weights follow from the coordinates. Computed once, on
+    first use.
+
+    @return SHA-256 of the graph content as a hex string
+     */
+    public String getDigest() {
+        if (digest == null) {
+            digest = computeDigest();
+        }
+        return digest;
+    }
+
+    /*
+    Hash the names, coordinates and CSR arrays
+
+    @return SHA-256 as a hex string
+     */
+    private String computeDigest() {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        // Feed the digest through a small buffer instead of one big byte array
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        byte[] name = new byte[64];
+        int n = size();
+        for (int v = 0; v < n; v++) {
+            int length = nameLength(v);
+            if (length > name.length) {
+                name = new byte[Math.max(length, name.length * 2)];
+            }
+            getNameBytes(v, name, 0);
+            if (buffer.remaining() < 16) {
+                flush(sha, buffer);
+            }
+            // The length prefix keeps "AB","C" different from "A","BC"
+            buffer.putInt(length);
+            if (length > buffer.remaining() - 12) {
+                // Leave room for the three ints that follow the name
+                flush(sha, buffer);
+                sha.update(name, 0, length);
+            } else {
+                buffer.put(name, 0, length);
+            }
+            buffer.putInt(getX(v)).putInt(getY(v)).putInt(degree(v));
+        }
+        // Degrees are already hashed, so the neighbour ids fix the whole adjacency
+        // (node by node: an edited graph can leave unused room between the lists)
+        for (int v = 0; v < n; v++) {
+            for (int e = edgeStart(v), end = edgeEnd(v); e < end; e++) {
+                if (buffer.remaining() < 4) {
+                    flush(sha, buffer);
+                }
+                buffer.putInt(target(e));
+            }
+        }
+        // Weights given in the file (graphs without them hash as before)
+        if (hasWeights()) {
+            for (int v = 0; v < n; v++) {
+                for (int e = edgeStart(v), end = edgeEnd(v); e < end; e++) {
+                    if (buffer.remaining() < 8) {
+                        flush(sha, buffer);
+                    }
+                    buffer.putDouble(weight(v, e));
+                }
+            }
+        }
+        flush(sha, buffer);
+
+        // Format the hash as hex
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : sha.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /*
+    Pass the buffered bytes to the digest and empty the buffer
+
+    @param sha Digest being computed
+
+    @param buffer Buffer holding the pending bytes
+     */
+    private static void flush(MessageDigest sha, ByteBuffer buffer) {
+        buffer.flip();
+        sha.update(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,299 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//GraphBuilder collects nodes and connections and packs them into an immutable Graph
+
+package maze;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+Builds a CSR Graph from maze rows
+
+Nodes get ids in the order they are first added. Connections may name nodes
+that have not been added yet, so they are resolved in build(). Each undirected
+connection is kept once no matter how many rows mention it, and is then written
+into the neighbour lists of both of its endpoints. If a connection is listed
+more than once, the weight of the first listing is kept.
+ */
+public class GraphBuilder {
+
+    // Node data, indexed by node id
+    private String[] names;                // Node names
+
+    private int[] xs;                      // X coordinates
+
+    private int[] ys;                      // Y coordinates
+
+    private int nodeCount;                 // Number of nodes added so far
+
+    private final Map<String, Integer> ids; // Name to id lookup
+
+    // Connections waiting to be resolved
+    private int[] edgeFrom;                // Id of the node whose row listed the connection
+
+    private String[] edgeTo;               // Name of the connected node
+
+    private double[] edgeWeight;           // Weight of each connection, NaN = default (null until one is given)
+
+    private int edgeCount;                 // Number of connections added so far
+
+    /*
+    Constructor presizes the builder
+
+    @param expectedNodes Expected number of nodes (e.g., from the maze file header)
+     */
+    public GraphBuilder(int expectedNodes) {
+        // Never start with a zero-length array so growing by doubling works
+        int capacity = Math.max(expectedNodes, 4);
+
+        names = new String[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+        ids = new HashMap<>(capacity * 2);
+
+        // Most maze rows list up to two connections
+        edgeFrom = new int[capacity * 2];
+        edgeTo = new String[capacity * 2];
+    }
+
+    /*
+    Add a node
+
+    A second row with the same name updates the position of the existing node
+    and its connections are merged, like the original HashMap-based loader.
+
+    @param name Name of the node
+
+    @param x X coordinate
+
+    @param y Y coordinate
+
+    @return The id of the node
+     */
+    public int addNode(String name, int x, int y) {
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            xs[existing] = x;
+            ys[existing] = y;
+            return existing;
+        }
+
+        // Grow the node arrays when full
+        if (nodeCount == names.length) {
+            int capacity = nodeCount * 2;
+            names = Arrays.copyOf(names, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+
+        int id = nodeCount++;
+        names[id] = name;
+        xs[id] = x;
+        ys[id] = y;
+        ids.put(name, id);
+        return id;
+    }
+
+    /*
+    Add a connection from a node to a (possibly not yet added) node
+
+    @param from Id of the node whose row lists the connection
+
+    @param toName Name of the connected node
+     */
+    public void addEdge(int from, String toName) {
+        addEdge(from, toName, Double.NaN);
+    }
+
+    /*
+    Add a weighted connection from a node to a (possibly not yet added) node
+
+    @param from Id of the node whose row lists the connection
+
+    @param toName Name of the connected node
+
+    @param weight Length of the connection (NaN = Euclidean distance between the nodes)
+     */
+    public void addEdge(int from, String toName, double weight) {
+        if (weight < 0 || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Weight must be a non-negative number: " + weight);
+        }
+
+        // Grow the edge arrays when full
+        if (edgeCount == edgeFrom.length) {
+            int capacity = edgeCount * 2;
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            if (edgeWeight != null) {
+                edgeWeight = growWeights(edgeWeight, capacity);
+            }
+        }
+        // The weight array appears with the first weight given
+        if (edgeWeight == null && !Double.isNaN(weight)) {
+            edgeWeight = growWeights(new double[0], edgeFrom.length);
+        }
+
+        edgeFrom[edgeCount] = from;
+        edgeTo[edgeCount] = toName;
+        if (edgeWeight != null) {
+            edgeWeight[edgeCount] = weight;
+        }
+        edgeCount++;
+    }
+
+    /*
+    Grow a weight array, filling the new entries with NaN (default weight)
+
+    @param weights Current array
+
+    @param capacity New length
+
+    @return The longer array
+     */
+    static double[] growWeights(double[] weights, int capacity) {
+        int old = weights.length;
+        double[] grown = Arrays.copyOf(weights, capacity);
+        Arrays.fill(grown, old, capacity, Double.NaN);
+        return grown;
+    }
+
+    /*
+    Pack the collected nodes and connections into a Graph
+
+    Connections to names that never appear as a node, and connections from a
+    node to itself, are dropped because a search can never follow them.
+
+    @return The immutable graph
+     */
+    public Graph build() {
+        int n = nodeCount;
+
+        // Intern the names in id order
+        NameTable table = new NameTable(n, n * 8);
+        for (int id = 0; id < n; id++) {
+            byte[] name = names[id].getBytes(StandardCharsets.UTF_8);
+            table.intern(ByteBuffer.wrap(name), 0, name.length);
+        }
+        table.trim();
+
+        // Resolve connection names to ids (-1 for unknown names)
+        int[] edgeToId = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            Integer to = ids.get(edgeTo[i]);
+            edgeToId[i] = to == null ? -1 : to;
+        }
+
+        return pack(table, xs, ys, n, edgeFrom, edgeToId, edgeWeight, edgeCount);
+    }
+
+    /*
+    Pack nodes and resolved connections into a Graph
+
+    Shared by build() and MazeParser. Connections to -1 and connections from a
+    node to itself are dropped.
+
+    @param table Node names, interned in id order
+
+    @param xs X coordinates by id (may be longer than n)
+
+    @param ys Y coordinates by id (may be longer than n)
+
+    @param n Number of nodes
+
+    @param edgeFrom Id of the node whose row listed each connection
+
+    @param edgeTo Id of the connected node, or -1 (overwritten)
+
+    @param edgeWeight Weight of each connection (NaN = Euclidean), or null if the file gave none
+
+    @param edgeCount Number of connections
+
+    @return The immutable graph
+     */
+    static Graph pack(NameTable table, int[] xs, int[] ys, int n, int[] edgeFrom, int[] edgeTo,
+            double[] edgeWeight, int edgeCount) {
+        // Count both directions of every usable connection
+        int[] degree = new int[n];
+        for (int i = 0; i < edgeCount; i++) {
+            int to = edgeTo[i];
+            int from = edgeFrom[i];
+            if (to == from) {
+                edgeTo[i] = -1;
+                continue;
+            }
+            if (to < 0) {
+                continue;
+            }
+
+            // Every connection is walkable in both directions
+            degree[from]++;
+            degree[to]++;
+        }
+
+        // Prefix sums turn degrees into row offsets
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + degree[v];
+        }
+
+        // Fill both directions of every connection, in file order
+        int[] targets = new int[offsets[n]];
+        double[] weights = edgeWeight == null ? null : new double[targets.length];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < edgeCount; i++) {
+            int to = edgeTo[i];
+            if (to < 0) {
+                continue;
+            }
+            int from = edgeFrom[i];
+            if (weights != null) {
+                // Missing weights default to the distance between the two nodes
+                double w = edgeWeight[i];
+                if (Double.isNaN(w)) {
+                    double dx = (double) xs[from] - xs[to];
+                    double dy = (double) ys[from] - ys[to];
+                    w = Math.sqrt(dx * dx + dy * dy);
+                }
+                weights[fill[from]] = w;
+                weights[fill[to]] = w;
+            }
+            targets[fill[from]++] = to;
+            targets[fill[to]++] = from;
+        }
+
+        // Remove duplicates (A->B and B->A in the file are the same connection)
+        // seen[w] == v + 1 marks w as already present in row v, so no clearing is needed
+        // (the degree array is reused for it); the first listing keeps its weight
+        int[] seen = degree;
+        Arrays.fill(seen, 0);
+        int write = 0;
+        for (int v = 0; v < n; v++) {
+            int start = offsets[v];
+            int end = offsets[v + 1];
+            offsets[v] = write;
+            for (int e = start; e < end; e++) {
+                int w = targets[e];
+                if (seen[w] != v + 1) {
+                    seen[w] = v + 1;
+                    if (weights != null) {
+                        weights[write] = weights[e];
+                    }
+                    targets[write++] = w;
+                }
+            }
+        }
+        offsets[n] = write;
+
+        return new ArrayGraph(table, Arrays.copyOf(xs, n), Arrays.copyOf(ys, n), offsets,
+                write == targets.length ? targets : Arrays.copyOf(targets, write),
+                weights == null || write == weights.length ? weights : Arrays.copyOf(weights, write));
+    }
+}
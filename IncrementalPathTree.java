@@ -0,0 +1,316 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//IncrementalPathTree keeps a BFS shortest-path tree up to date while connections are added and removed
+
+package maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Single-source shortest-path tree that is repaired after each edit
+
+Built by one full BFS, like ShortestPathTree. After that the graph may
+change one connection at a time, and only the part of the tree the change
+affects is visited:
+
+- Added connection a-b: if it makes b closer to the source (or reachable
+  at all), b and every node it makes closer are updated by a BFS that
+  starts at b and stops wherever distances do not improve.
+
+- Removed connection a-b that is not a tree edge: nothing changes. If b
+  was a's child, only b's subtree can get further away. If b has another
+  neighbour one step closer to the source, b is simply re-parented.
+  Otherwise the subtree is collected, every node in it takes its best
+  distance through a neighbour outside the subtree, and Dijkstra's
+  algorithm, restricted to the subtree, settles the rest (nodes it cannot
+  reach become unreachable).
+
+getRepairedCount() tells how many nodes the last repair visited. The tree
+is not thread-safe; Maze only changes it while no query is reading it.
+ */
+public final class IncrementalPathTree {
+
+    private final Graph graph;       // Graph the tree follows (changed by the caller)
+
+    private final int source;        // Id of the root node
+
+    private final int[] distance;    // Edges from the source to each node (-1 = unreachable)
+
+    private final int[] parent;      // Parent of each node in the tree (-1 for the source and unreachable nodes)
+
+    private int reachedCount;        // Number of nodes reachable from the source
+
+    private int repairedCount;       // Nodes visited by the last repair
+
+    // Scratch state for repairs, kept between edits
+    private final int[] queue;       // BFS queue, and the subtree being repaired
+
+    private final int[] mark;        // mark[v] == epoch while v is in the subtree being repaired
+
+    private int epoch;               // Stamp of the current repair
+
+    private final IntMinHeap heap;   // Subtree nodes by tentative distance
+
+    /*
+    Constructor runs a full BFS from the source
+
+    @param graph Graph to search (connections may change later; nodes may not)
+
+    @param source Id of the root node
+     */
+    public IncrementalPathTree(Graph graph, int source) {
+        int n = graph.size();
+        this.graph = graph;
+        this.source = source;
+        distance = new int[n];
+        parent = new int[n];
+        queue = new int[n];
+        mark = new int[n];
+        heap = new IntMinHeap(0);
+        Arrays.fill(distance, -1);
+        Arrays.fill(parent, -1);
+
+        distance[source] = 0;
+        queue[0] = source;
+        reachedCount = 1 + spread(1);
+        repairedCount = reachedCount;
+    }
+
+    /*
+    Continue a BFS from the nodes in the queue, taking every node it makes closer
+
+    @param tail Number of nodes already in the queue
+
+    @return Number of nodes that were unreachable before and are reached now
+     */
+    private int spread(int tail) {
+        int newlyReached = 0;
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            int next = distance[current] + 1;
+            for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                int w = graph.target(e);
+                if (distance[w] < 0 || next < distance[w]) {
+                    if (distance[w] < 0) {
+                        newlyReached++;
+                    }
+                    distance[w] = next;
+                    parent[w] = current;
+                    // Each node improves at most once: the first improvement is already the best
+                    queue[tail++] = w;
+                }
+            }
+        }
+        repairedCount = tail;
+        return newlyReached;
+    }
+
+    /*
+    Update the tree after a connection was added to the graph
+
+    @param a One end of the new connection
+
+    @param b The other end
+     */
+    public void connectionAdded(int a, int b) {
+        // Orient the connection so that it leads away from the source
+        if (distance[a] < 0 || (distance[b] >= 0 && distance[b] < distance[a])) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        if (distance[a] < 0 || (distance[b] >= 0 && distance[b] <= distance[a] + 1)) {
+            // Neither end gets closer
+            repairedCount = 0;
+            return;
+        }
+        if (distance[b] < 0) {
+            reachedCount++;
+        }
+        distance[b] = distance[a] + 1;
+        parent[b] = a;
+        queue[0] = b;
+        reachedCount += spread(1);
+    }
+
+    /*
+    Update the tree after a connection was removed from the graph
+
+    @param a One end of the removed connection
+
+    @param b The other end
+     */
+    public void connectionRemoved(int a, int b) {
+        // Only a tree edge matters; its lower end is the root of the subtree that may move away
+        int child;
+        if (parent[b] == a) {
+            child = b;
+        } else if (parent[a] == b) {
+            child = a;
+        } else {
+            repairedCount = 0;
+            return;
+        }
+
+        // Cheap case: another neighbour is just as close to the source
+        for (int e = graph.edgeStart(child), end = graph.edgeEnd(child); e < end; e++) {
+            int w = graph.target(e);
+            if (distance[w] >= 0 && distance[w] == distance[child] - 1) {
+                parent[child] = w;
+                repairedCount = 1;
+                return;
+            }
+        }
+
+        // Collect the subtree of child (its tree children are neighbours whose parent it is)
+        nextEpoch();
+        int size = 0;
+        queue[size++] = child;
+        mark[child] = epoch;
+        for (int head = 0; head < size; head++) {
+            int current = queue[head];
+            for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                int w = graph.target(e);
+                if (parent[w] == current && mark[w] != epoch) {
+                    mark[w] = epoch;
+                    queue[size++] = w;
+                }
+            }
+        }
+
+        // Every subtree node starts from its best neighbour outside the subtree
+        heap.ensureCapacity(graph.size());
+        for (int i = 0; i < size; i++) {
+            int v = queue[i];
+            int best = -1;
+            int bestParent = -1;
+            for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                int w = graph.target(e);
+                if (mark[w] != epoch && distance[w] >= 0 && (best < 0 || distance[w] + 1 < best)) {
+                    best = distance[w] + 1;
+                    bestParent = w;
+                }
+            }
+            distance[v] = -1;
+            parent[v] = bestParent;
+            if (best >= 0) {
+                heap.add(v, best);
+            }
+        }
+
+        // Dijkstra inside the subtree; a node leaves the subtree once it is settled
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            long key = heap.peekKey();
+            int v = heap.poll();
+            distance[v] = (int) key;
+            mark[v] = 0;
+            settled++;
+            long next = key + 1;
+            for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                int w = graph.target(e);
+                if (mark[w] != epoch) {
+                    continue;
+                }
+                if (!heap.contains(w)) {
+                    parent[w] = v;
+                    heap.add(w, next);
+                } else if (next < heap.keyOf(w)) {
+                    parent[w] = v;
+                    heap.decreaseKey(w, next);
+                }
+            }
+        }
+
+        // Whatever was not settled is cut off from the source
+        for (int i = 0; i < size; i++) {
+            int v = queue[i];
+            if (mark[v] == epoch) {
+                mark[v] = 0;
+                parent[v] = -1;
+            }
+        }
+        reachedCount -= size - settled;
+        repairedCount = size;
+    }
+
+    private void nextEpoch() {
+        // A new stamp forgets the previous subtree without clearing the array
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            epoch = 1;
+        }
+    }
+
+    /*
+    Read the shortest path to a target off the tree
+
+    @param target Id of the target node
+
+    @return Node ids from the source to the target, or an empty array if unreachable
+     */
+    public int[] pathTo(int target) {
+        if (distance[target] < 0) {
+            return new int[0];
+        }
+        int[] path = new int[distance[target] + 1];
+        int i = path.length;
+        for (int v = target; v >= 0; v = parent[v]) {
+            path[--i] = v;
+        }
+        return path;
+    }
+
+    /*
+    Read the shortest path to a target off the tree as node names
+
+    @param target Id of the target node
+
+    @return Node names from the source to the target, or an empty list if unreachable
+     */
+    public List<String> namesTo(int target) {
+        int[] path = pathTo(target);
+        List<String> names = new ArrayList<>(path.length);
+        for (int id : path) {
+            names.add(graph.nameOf(id));
+        }
+        return names;
+    }
+
+    public boolean isReachable(int target) {
+        // Return true if the target can be reached from the source
+        return distance[target] >= 0;
+    }
+
+    public int getDistance(int target) {
+        // Return the number of edges from the source to the target (-1 if unreachable)
+        return distance[target];
+    }
+
+    public int getParent(int node) {
+        // Return the parent of a node in the tree (-1 for the source and unreachable nodes)
+        return parent[node];
+    }
+
+    public int getSource() {
+        // Return the id of the root node
+        return source;
+    }
+
+    public int getReachedCount() {
+        // Return the number of nodes reachable from the source (including the source)
+        return reachedCount;
+    }
+
+    public int getRepairedCount() {
+        // Return how many nodes the last repair visited (0 if the edit changed nothing)
+        return repairedCount;
+    }
+}
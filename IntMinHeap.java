@@ -0,0 +1,207 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//IntMinHeap is a d-ary (by default binary) min-heap of int node ids with decrease-key
+
+package maze;
+
+/*
+Indexed d-ary min-heap of node ids
+
+Each id in 0 .. capacity-1 is in the heap at most once, with a long key.
+Each entry has up to arity children. A wider heap is shallower, so
+decreaseKey (which sifts up) does fewer steps, which suits Dijkstra, where
+decreases outnumber polls; polls compare more children per level.
+position[id] tells where the id sits in the heap array, so decreaseKey can
+sift it up without searching for it. Nothing is boxed and nothing is
+allocated after the heap has grown to the graph size.
+
+clear() is O(1): contains() checks that position[id] points back at id, so
+old positions never have to be wiped.
+
+A heap is not thread-safe; each SearchContext has its own.
+ */
+public final class IntMinHeap {
+
+    private int[] ids;          // Heap array of ids (ids[0] is the minimum)
+
+    private long[] keys;        // keys[i] is the key of ids[i]
+
+    private int[] position;     // Index of each id in ids (only valid while the id is in the heap)
+
+    private int size;           // Number of ids in the heap
+
+    private final int arity;    // Children per entry
+
+    /*
+    Constructor for a binary heap
+
+    @param capacity Number of distinct ids (ids are 0 .. capacity-1)
+     */
+    public IntMinHeap(int capacity) {
+        this(capacity, 2);
+    }
+
+    /*
+    Constructor
+
+    @param capacity Number of distinct ids (ids are 0 .. capacity-1)
+
+    @param arity Children per entry (2 = binary heap, 4 = 4-ary heap, ...)
+     */
+    public IntMinHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2");
+        }
+        this.arity = arity;
+        ids = new int[capacity];
+        keys = new long[capacity];
+        position = new int[capacity];
+        size = 0;
+    }
+
+    /*
+    Make room for more ids, keeping the heap empty
+
+    @param capacity Number of distinct ids needed
+     */
+    public void ensureCapacity(int capacity) {
+        if (position.length < capacity) {
+            ids = new int[capacity];
+            keys = new long[capacity];
+            position = new int[capacity];
+        }
+        size = 0;
+    }
+
+    public void clear() {
+        // Forget every id (old positions no longer point back at their ids)
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        // Return true if there is nothing left to poll
+        return size == 0;
+    }
+
+    public int size() {
+        // Return the number of ids in the heap
+        return size;
+    }
+
+    public boolean contains(int id) {
+        // The id is in the heap only if its position still points back at it
+        int i = position[id];
+        return i < size && ids[i] == id;
+    }
+
+    public long keyOf(int id) {
+        // Return the key of an id that is in the heap
+        return keys[position[id]];
+    }
+
+    /*
+    Add an id that is not in the heap
+
+    @param id Id to add
+
+    @param key Its key
+     */
+    public void add(int id, long key) {
+        int i = size++;
+        ids[i] = id;
+        keys[i] = key;
+        position[id] = i;
+        siftUp(i);
+    }
+
+    /*
+    Lower the key of an id that is in the heap
+
+    @param id Id already in the heap
+
+    @param key New key, not larger than the current one
+     */
+    public void decreaseKey(int id, long key) {
+        int i = position[id];
+        keys[i] = key;
+        siftUp(i);
+    }
+
+    /*
+    Remove the id with the smallest key
+
+    @return The id
+     */
+    public int poll() {
+        int top = ids[0];
+        size--;
+        if (size > 0) {
+            // Move the last entry to the root and let it sink
+            ids[0] = ids[size];
+            keys[0] = keys[size];
+            position[ids[0]] = 0;
+            siftDown(0);
+        }
+        // Make contains(top) false even though its old slot may still hold it
+        position[top] = Integer.MAX_VALUE;
+        return top;
+    }
+
+    public long peekKey() {
+        // Return the smallest key (the heap must not be empty)
+        return keys[0];
+    }
+
+    private void siftUp(int i) {
+        // Move the entry at i towards the root while its parent has a larger key
+        int id = ids[i];
+        long key = keys[i];
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            if (keys[parent] <= key) {
+                break;
+            }
+            ids[i] = ids[parent];
+            keys[i] = keys[parent];
+            position[ids[i]] = i;
+            i = parent;
+        }
+        ids[i] = id;
+        keys[i] = key;
+        position[id] = i;
+    }
+
+    private void siftDown(int i) {
+        // Move the entry at i towards the leaves while a child has a smaller key
+        int id = ids[i];
+        long key = keys[i];
+        while (true) {
+            // Smallest of the children arity*i+1 .. arity*i+arity
+            long first = (long) arity * i + 1;
+            if (first >= size) {
+                break;
+            }
+            int child = (int) first;
+            int last = (int) Math.min(first + arity, size);
+            for (int c = child + 1; c < last; c++) {
+                if (keys[c] < keys[child]) {
+                    child = c;
+                }
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            ids[i] = ids[child];
+            keys[i] = keys[child];
+            position[ids[i]] = i;
+            i = child;
+        }
+        ids[i] = id;
+        keys[i] = key;
+        position[id] = i;
+    }
+}
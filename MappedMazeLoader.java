@@ -0,0 +1,86 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//MappedMazeLoader parses maze files straight from memory-mapped bytes
+
+package maze;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+Zero-copy loader for very large maze files
+
+The file is mapped into memory with FileChannel.map and MazeParser reads the
+rows directly from the mapped pages, so the bytes are never copied into a
+heap buffer or turned into Strings; only each distinct name is copied, once,
+into the parser's NameTable.
+
+One mapping can cover at most 2 GB, so bigger files are mapped in segments.
+Every segment ends at a newline, so no row is ever split between two of
+them. The graph is the same one the stream parser builds.
+ */
+public final class MappedMazeLoader {
+
+    // Files at least this big are mapped by Maze.loadMaze instead of streamed
+    public static final long MAPPED_THRESHOLD = 64L << 20;
+
+    // Bytes mapped at a time (one mapping must stay below 2 GB)
+    private static final int SEGMENT_SIZE = 1 << 30;
+
+    private MappedMazeLoader() {
+        // Static helpers only
+    }
+
+    /*
+    Parse a whole maze file through memory mapping
+
+    @param file Maze file
+
+    @param parser Parser that receives the header and rows
+     */
+    public static void parse(Path file, MazeParser parser) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            parse(channel, parser, SEGMENT_SIZE);
+        }
+    }
+
+    /*
+    Parse a maze file segment by segment
+
+    @param channel Open file
+
+    @param parser Parser that receives the header and rows
+
+    @param segmentSize Most bytes mapped at a time (also the longest allowed line)
+     */
+    static void parse(FileChannel channel, MazeParser parser, int segmentSize) throws IOException {
+        long size = channel.size();
+        long position = 0;
+
+        while (position < size) {
+            int length = (int) Math.min(segmentSize, size - position);
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+            // Stop after the last complete line, unless this is the end of the file
+            int end = length;
+            if (position + length < size) {
+                end = MazeParser.lastNewline(segment, 0, length) + 1;
+                if (end == 0) {
+                    throw new IOException("Line longer than " + segmentSize + " bytes at offset " + position);
+                }
+            }
+
+            parser.parseLines(segment, 0, end);
+            // The next segment starts with the first byte not parsed yet
+            // (the mapping itself is released when the buffer is garbage collected)
+            position += end;
+        }
+    }
+}
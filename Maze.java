@@ -8,147 +8,256 @@ Data structures and algorithms
 
 package maze;
 
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 //Manages maze data and pathfinding operations
 
-public class Maze {
+/*
+Thread safety: one Maze can answer findPath, getShortestPathTree and
+traceSearch calls from many threads at once without locking. The loaded
+maze (graph, header values, tree cache) is an immutable snapshot that
+loadMaze replaces as a whole, and each thread searches with its own
+SearchContext. getFinalPath() returns the result of the most recent
+findPath call on any thread; use the list findPath returns instead.
+
+Storage: with setStorage(Storage.OFF_HEAP) the graph of every text maze
+loaded afterwards is copied into native memory, so the Java heap only holds
+it while the file is parsed. That memory lives until the graph is
+unreachable and the garbage collector returns it; close() only releases
+the maze's references to it.
+
+Corridor compression: with setCorridorCompression(true), findPath searches
+a CorridorGraph where every chain of two-connection nodes is one weighted
+edge, then expands the answer back into the full list of nodes.
+With setDeadEndPruning(true) it first removes every dead-end branch (see
+PrunedGraph) and searches only the core that is left. Both are built once
+per loaded maze and can be combined.
+
+Editing: addConnection and removeConnection change the loaded maze in
+place. The first edit copies the connections into a DynamicGraph and
+builds a shortest-path tree from START; each edit after that repairs only
+the part of the tree it affects (see IncrementalPathTree), so findPath
+reads the new path straight off the tree. Queries on an edited maze take
+a read lock and edits a write lock, so they still may come from several
+threads; mazes that were never edited are not locked at all.
+ */
+public class Maze implements AutoCloseable {
+    
+    // Names of the nodes findPath() searches between
+    public static final String START = "START";
+    public static final String EXIT = "EXIT";
+    
+    /**
+     * What findPath minimises
+     */
+    public enum Metric {
+        HOPS,      // Number of connections (BFS)
+        DISTANCE   // Total weight of the connections (Dijkstra)
+    }
+    
+    /**
+     * Where the graph of a loaded maze is kept
+     */
+    public enum Storage {
+        HEAP,      // Java arrays (fastest to load)
+        OFF_HEAP   // Direct buffers outside the Java heap, kept until the graph is unreachable
+    }
     
     // Maze properties
-    private int numberOfNodes;     // Total number of nodes in the maze
-    private int columns;           // Number of columns in the maze grid
-    private int rows;              // Number of rows in the maze grid
-    private Map<String, Node> nodes; // Map of all nodes by their names
-    private List<String> currentPath; // Current path being explored
-    private List<String> finalPath;   // Final path from START to EXIT
+    private volatile Snapshot snapshot; // Loaded maze: graph, header values and tree cache
+    private volatile List<String> finalPath;   // Final path from START to EXIT (read-only)
+    private final ThreadLocal<QueryState> queryStates; // Search scratch state of each thread
+    private volatile SearchEngine searchEngine;     // Search algorithm chosen by the user (null = automatic)
+    private final BfsEngine bfsEngine;              // Sequential BFS used for ordinary mazes
+    private final ParallelBfsEngine parallelEngine; // Parallel BFS used for very large mazes
+    private final DijkstraEngine dijkstraEngine;    // Dijkstra used when paths are measured by weight
+    private volatile Metric metric;                 // What findPath minimises (null = automatic)
+    private volatile SearchListener searchListener; // Trace listener attached to searches (null = none)
+    private volatile SolutionCache solutionCache;   // Solved paths by maze content (null = no caching)
+    private volatile Storage storage;               // Where loadMaze keeps the graph
+    private volatile boolean corridorCompression;   // Search START to EXIT on the corridor-compressed graph
+    private volatile boolean deadEndPruning;        // Search START to EXIT with dead-end branches removed
+    private volatile int repairedCount;             // Nodes the last edit's tree repair visited
+    
+    // Most shortest-path trees kept per maze (each costs two ints per node)
+    private static final int MAX_CACHED_TREES = 16;
     
     /**
      * Constructor initializes empty maze
      */
     public Maze() {
-        // Create a new HashMap to store nodes with their names as keys
-        nodes = new HashMap<>();
-        // Initialize an empty list to track the current path during search
-        currentPath = new ArrayList<>();
+        // Start with an empty graph until a maze file is loaded
+        snapshot = new Snapshot(new GraphBuilder(0).build(), 0, 0, 0, null);
         // Initialize an empty list to store the final solution path
-        finalPath = new ArrayList<>();
+        finalPath = Collections.emptyList();
+        // Each thread creates its search state on first use and reuses it for every query
+        queryStates = new ThreadLocal<QueryState>() {
+            @Override
+            protected QueryState initialValue() {
+                return new QueryState();
+            }
+        };
+        // Pick the engine by maze size unless one is chosen with setSearchEngine
+        searchEngine = null;
+        bfsEngine = new BfsEngine();
+        parallelEngine = new ParallelBfsEngine();
+        dijkstraEngine = new DijkstraEngine();
+        // Measure paths by weight only for mazes whose file gives weights, unless told otherwise
+        metric = null;
+        // Share solved paths with every other Maze that loads the same content
+        solutionCache = SolutionCache.getShared();
+        // Keep graphs on the heap unless told otherwise
+        storage = Storage.HEAP;
+        // Search the full graph unless told otherwise
+        corridorCompression = false;
+        deadEndPruning = false;
     }
     
     /**
-     * Load maze from file using FileManager
+     * Immutable view of a loaded maze
+     * Queries read the snapshot field once and use that snapshot throughout,
+     * so a concurrent loadMaze never mixes two mazes in one answer.
+     */
+    private static final class Snapshot {
+        final Graph graph;           // Compact CSR graph of the maze
+        final int numberOfNodes;     // Total number of nodes in the maze (from the header)
+        final int columns;           // Number of columns in the maze grid
+        final int rows;              // Number of rows in the maze grid
+        final ConcurrentHashMap<Integer, CachedTree> trees; // Shortest-path trees by source id
+        final AtomicLong clock;      // Use counter for least-recently-used eviction of trees
+        final OffHeapArena arena;    // Owner of the graph's off-heap memory (null when on the heap)
+        volatile ComponentIndex components; // Connected component of every node (built by loadMaze, rebuilt on demand after an edit)
+        final ReentrantReadWriteLock edits; // Guards the graph of an edited maze (null for a loaded maze)
+        volatile IncrementalPathTree startTree; // BFS tree from START, repaired after each edit
+        volatile Map<String, Node> nodes; // Read-only view of all nodes by their names (built on demand)
+        volatile PrunedGraph pruned; // Graph with dead ends removed, START and EXIT kept (built on demand)
+        volatile CorridorGraph corridors; // Graph with corridors collapsed, START and EXIT kept (built on demand)
+        
+        Snapshot(Graph graph, int numberOfNodes, int columns, int rows, OffHeapArena arena) {
+            this.graph = graph;
+            this.numberOfNodes = numberOfNodes;
+            this.columns = columns;
+            this.rows = rows;
+            this.arena = arena;
+            // Only an editable graph can change under a query
+            this.edits = graph instanceof DynamicGraph ? new ReentrantReadWriteLock() : null;
+            this.trees = new ConcurrentHashMap<>();
+            this.clock = new AtomicLong();
+        }
+    }
+    
+    /**
+     * Cached shortest-path tree with the time it was last used
+     */
+    private static final class CachedTree {
+        final ShortestPathTree tree;
+        volatile long lastUsed;
+        
+        CachedTree(ShortestPathTree tree, long lastUsed) {
+            this.tree = tree;
+            this.lastUsed = lastUsed;
+        }
+    }
+    
+    /**
+     * Search state confined to one thread
+     */
+    private static final class QueryState {
+        final SearchContext context = new SearchContext(); // Reusable scratch arrays
+        int expandedCount;           // Nodes expanded by this thread's last findPath call
+        long edgesInspected;         // Edges checked by this thread's last findPath call
+    }
+    
+    /**
+     * Load maze from a text file in a single pass, or open a binary maze
      * @param fileName Name of the maze file to load
      * @return true if successfully loaded, false otherwise
      */
     public boolean loadMaze(String fileName) {
         try {
-            // Create FileManager instance and read the file
-            // Create a FileManager object to handle file reading operations
-            FileManager fileManager = new FileManager(fileName);
-            // Read the file contents (null means use the filename from constructor)
-            fileManager.readFile(null); // Pass null to use the filename from constructor
-            
-            // Parse the header line (first line contains: numberOfNodes,columns,rows)
-            // Split the first line by commas to get the maze dimensions
-            String[] header = fileManager.lineData[0].split(",");
-            // Parse and store the total number of nodes from the header
-            numberOfNodes = Integer.parseInt(header[0]);
-            // Parse and store the number of columns in the maze grid
-            columns = Integer.parseInt(header[1]);
-            // Parse and store the number of rows in the maze grid
-            rows = Integer.parseInt(header[2]);
-            
-            // Clear existing nodes for new maze
-            // Remove any previously loaded nodes to prepare for new maze data
-            nodes.clear();
-            
-            // First pass: Create all nodes
-            // Loop through each line of the file (starting from line 1, skipping header)
-            for (int i = 1; i < fileManager.numberOfLines; i++) {
-                // Split the line by commas to extract node data
-                String[] nodeData = fileManager.lineData[i].split(",");
-                
-                // Extract node information
-                // Get the node's name (e.g., "START", "A", "B", "EXIT")
-                String nodeName = nodeData[0];        // Node name
-                // Parse the x-coordinate from the file
-                int x = Integer.parseInt(nodeData[1]); // X coordinate
-                // Parse the y-coordinate from the file
-                int y = Integer.parseInt(nodeData[2]); // Y coordinate
-                
-                // Create new node
-                // Instantiate a new Node object with the extracted data
-                Node node = new Node(nodeName, x, y);
-                
-                // Store node in the map
-                // Add the node to the HashMap with its name as the key
-                nodes.put(nodeName, node);
-            }
-            
-            // Second pass: Set up connections (only add them once, not bidirectionally here)
-            // Loop through each line again to establish connections between nodes
-            for (int i = 1; i < fileManager.numberOfLines; i++) {
-                // Split the line by commas to extract connection data
-                String[] nodeData = fileManager.lineData[i].split(",");
-                
-                // Get the name of the current node
-                String nodeName = nodeData[0];        // Node name
-                // Get the name of the first connected node
-                String connection1 = nodeData[3];      // First connection
-                // Get the name of the second connected node
-                String connection2 = nodeData[4];      // Second connection
-                
-                // Retrieve the current node object from the HashMap
-                Node currentNode = nodes.get(nodeName);
-                
-                // Handle first connection
-                // Check if the first connection is not "A" (A means no connection)
-                if (!connection1.equals("A")) {
-                    // Handle "W" as connection to EXIT
-                    // Replace "W" with "EXIT" as per the maze file format specification
-                    if (connection1.equals("W")) {
-                        connection1 = "EXIT";
+            Graph loaded;
+            int headerNodes;
+            int headerColumns;
+            int headerRows;
+            Path file = Paths.get(fileName);
+            if (BinaryMaze.isBinary(file)) {
+                // Binary mazes are opened by mapping their arrays, nothing is parsed
+                BinaryMaze binary = BinaryMaze.open(file);
+                loaded = binary.getGraph();
+                headerNodes = binary.getNumberOfNodes();
+                headerColumns = binary.getColumns();
+                headerRows = binary.getRows();
+            } else {
+                // Parse the header and every node row while reading the file once
+                // The header's numberOfNodes presizes the parser's arrays, capped by the file size
+                long size = Files.size(file);
+                MazeParser parser = new MazeParser(size);
+                if (size >= ParallelMazeLoader.PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+                    // Huge files are cut into pieces that are parsed on all cores, then merged
+                    loaded = ParallelMazeLoader.load(file, parser);
+                } else {
+                    if (size >= MappedMazeLoader.MAPPED_THRESHOLD) {
+                        // Large files are parsed straight from memory-mapped pages
+                        MappedMazeLoader.parse(file, parser);
+                    } else {
+                        try (InputStream in = new FileInputStream(fileName)) {
+                            parser.parse(in);
+                        }
                     }
-                    // Add the connection to the current node's connection list
-                    currentNode.addConnection(connection1);
-                }
-                
-                // Handle second connection
-                // Check if the second connection is not "A" (A means no connection)
-                if (!connection2.equals("A")) {
-                    // Handle "W" as connection to EXIT
-                    // Replace "W" with "EXIT" as per the maze file format specification
-                    if (connection2.equals("W")) {
-                        connection2 = "EXIT";
-                    }
-                    // Add the connection to the current node's connection list
-                    currentNode.addConnection(connection2);
+                    // Pack nodes and connections into the immutable CSR graph
+                    loaded = parser.build();
                 }
+                // Header values: numberOfNodes,columns,rows
+                headerNodes = parser.getHeaderNodes();
+                headerColumns = parser.getHeaderColumns();
+                headerRows = parser.getHeaderRows();
             }
             
-            // Third pass: Add bidirectional connections
-            // Now that all direct connections are established, add reverse connections
-            for (Node node : nodes.values()) {
-                // Get the current node's name
-                String nodeName = node.getName();
-                // Loop through all of this node's connections
-                for (String connectionName : new ArrayList<>(node.getConnections())) {
-                    // Get the connected node object from the HashMap
-                    Node connectedNode = nodes.get(connectionName);
-                    // Check if the connected node exists
-                    if (connectedNode != null) {
-                        // Add a reverse connection from the connected node back to current node
-                        // This ensures the maze is bidirectionally navigable
-                        connectedNode.addConnection(nodeName);
-                    }
+            // Move the graph out of the heap if asked (binary mazes are mapped, so already are)
+            OffHeapArena arena = null;
+            if (storage == Storage.OFF_HEAP && !(loaded instanceof BufferGraph)) {
+                arena = new OffHeapArena();
+                try {
+                    loaded = BufferGraph.offHeapCopy(loaded, arena);
+                } catch (RuntimeException | OutOfMemoryError e) {
+                    arena.close();
+                    throw e;
                 }
             }
             
+            // Only replace the current maze once the new one has loaded completely
+            // The new snapshot starts with no node view and no cached trees
+            // (the old snapshot's memory is left to the garbage collector, a query may still use it)
+            Snapshot loadedMaze = new Snapshot(loaded, headerNodes, headerColumns, headerRows, arena);
+            // Label components, prune and compress now so the first findPath does not pay for it
+            // (only real loads: the empty placeholder mazes of Maze() and close() are never labelled)
+            loadedMaze.components = ComponentIndex.build(loaded);
+            Graph searched = searchGraphOf(loadedMaze);
+            if (corridorCompression) {
+                corridorsOf(loadedMaze, searched);
+            }
+            // Swap under the edit lock, so a first edit running now cannot put the old maze back
+            synchronized (this) {
+                snapshot = loadedMaze;
+                // Clear the path of the previous maze
+                finalPath = Collections.emptyList();
+            }
+            
             // Return true to indicate successful maze loading
             return true; // Successfully loaded
             
-        } catch (Exception e) {
+        } catch (Exception | OutOfMemoryError e) {
             // Print error message if any exception occurs during loading
-            System.out.println("Error loading maze: " + e.getMessage());
+            System.err.println("Error loading maze: " + e.getMessage());
             // Return false to indicate failed maze loading
             return false; // Failed to load
         }
@@ -156,226 +265,859 @@ public class Maze {
     
     /**
      * Find path from START to EXIT using Breadth-First Search (BFS)
-     * @return List of node names representing the path, or empty list if no path found
+     * If the maze file gives weights (or the metric is DISTANCE) the path with
+     * the smallest total weight is found with Dijkstra instead.
+     * Safe to call from several threads at once.
+     * @return Read-only list of node names representing the path, or empty list if no path found
      */
     public List<String> findPath() {
-        // Reset all nodes for new search
-        // Loop through all nodes in the maze
-        for (Node node : nodes.values()) {
-            // Reset each node's visited flag and parent reference
-            node.reset();
-        }
-        
-        // Clear previous paths
-        // Remove any previous path data from the finalPath list
-        finalPath.clear();
-        
-        // Debug: Print all nodes and their connections
-        // Print a header line for debugging output
-        System.out.println("=== MAZE DEBUG INFO ===");
-        // Print the total number of nodes in the maze
-        System.out.println("Total nodes: " + nodes.size());
-        // Loop through all nodes to display their information
-        for (Node node : nodes.values()) {
-            // Print each node's name, coordinates, and connections
-            System.out.println(node.getName() + " at (" + node.getX() + "," + node.getY() + ") connects to: " + node.getConnections());
+        // Use one snapshot of the maze for the whole query
+        Snapshot maze = snapshot;
+        Lock lock = readLock(maze);
+        try {
+            return findPath(maze);
+        } finally {
+            unlock(lock);
         }
-        // Print a footer line for debugging output
-        System.out.println("=====================");
+    }
+    
+    /**
+     * Find the START to EXIT path of one snapshot
+     * @param maze Snapshot to search (read-locked if it was edited)
+     * @return Read-only list of node names representing the path, or empty list if no path found
+     */
+    private List<String> findPath(Snapshot maze) {
+        Graph graph = maze.graph;
+        // Search state of the calling thread
+        QueryState query = queryStates.get();
+        SearchContext searchContext = query.context;
+        searchContext.setListener(searchListener);
         
         // Get START node
-        // Retrieve the START node from the HashMap
-        Node startNode = nodes.get("START");
+        // Look up the id of the START node
+        int start = graph.idOf(START);
+        // Look up the id of the EXIT node (-1 if the maze has none)
+        int exit = graph.idOf(EXIT);
         // Check if START node exists in the maze
-        if (startNode == null) {
+        if (start < 0) {
             // Print error message if START node is not found
-            System.out.println("START node not found!");
+            System.err.println("START node not found!");
+            // Return empty path list
+            return publish(Collections.<String>emptyList());
+        }
+        // A maze without EXIT has no path
+        if (exit < 0) {
             // Return empty path list
-            return finalPath;
+            return publish(Collections.<String>emptyList());
         }
         
-        // Initialize BFS queue and add start node
-        // Create a queue to manage nodes to be explored (FIFO order)
-        Queue<Node> queue = new LinkedList<>();
-        // Add the START node to the queue
-        queue.add(startNode);
-        // Mark the START node as visited
-        startNode.setVisited(true);
+        // Fewest connections or smallest total weight
+        Metric pathMetric = effectiveMetric(graph);
         
-        // BFS algorithm to find shortest path
-        // Continue looping while there are nodes to explore
-        while (!queue.isEmpty()) {
-            // Remove and retrieve the first node from the queue
-            Node currentNode = queue.poll();
-            // Print the name of the node being explored for debugging
-            System.out.println("Exploring node: " + currentNode.getName());
-            
-            // Check if we reached the EXIT
-            // Check if the current node is the EXIT node
-            if (currentNode.getName().equals("EXIT")) {
-                // Print success message
-                System.out.println("Found EXIT node!");
-                // Reconstruct path by backtracking from EXIT to START
-                // Call method to build the final path by following parent pointers
-                reconstructPath(currentNode);
-                // Return the complete path from START to EXIT
-                return finalPath;
+        // An edited maze keeps its BFS tree from START up to date, so the path is read off it
+        // (not for DISTANCE, a user-chosen engine or a listener, which need a real search)
+        IncrementalPathTree startTree = maze.startTree;
+        if (startTree != null && pathMetric == Metric.HOPS && searchEngine == null
+                && searchContext.getListener() == null) {
+            query.expandedCount = 0;
+            query.edgesInspected = 0;
+            return publish(startTree.namesTo(exit));
+        }
+        
+        // Answer from the solution cache if identical maze content was solved before
+        // (skipped while a listener is attached, since it expects to see the search, and for
+        // edited mazes, whose digest would have to be recomputed after every edit)
+        SolutionCache cache = solutionCache;
+        String cacheKey = null;
+        if (cache != null && searchContext.getListener() == null && maze.edits == null) {
+            cacheKey = SolutionCache.keyOf(graph, start, exit, pathMetric);
+            int[] cached = cache.get(cacheKey);
+            if (cached != null) {
+                // No nodes were expanded for this answer
+                query.expandedCount = 0;
+                query.edgesInspected = 0;
+                return publish(toNames(graph, cached, cached.length));
             }
-            
-            // Explore all connections of current node
-            // Loop through all nodes connected to the current node
-            for (String connectionName : currentNode.getConnections()) {
-                // Get the connected node object from the HashMap
-                Node connectedNode = nodes.get(connectionName);
-                
-                // If connected node exists and hasn't been visited
-                // Check if the node exists and has not been explored yet
-                if (connectedNode != null && !connectedNode.isVisited()) {
-                    // Print which node is being added to the queue for debugging
-                    System.out.println("  -> Adding " + connectionName + " to queue");
-                    // Mark the connected node as visited
-                    connectedNode.setVisited(true);
-                    // Set the current node as the parent of the connected node
-                    connectedNode.setParent(currentNode);
-                    // Add the connected node to the queue for future exploration
-                    queue.add(connectedNode);
-                }
+        }
+        
+        // EXIT in another component than START: no path, and no need to search for one
+        if (!componentsOf(maze).connected(start, exit)) {
+            query.expandedCount = 0;
+            query.edgesInspected = 0;
+            return publish(Collections.<String>emptyList());
+        }
+        
+        // Search without the dead ends and/or with the corridors collapsed, then map the path back
+        // (not with a listener, which expects to see the full graph)
+        if ((deadEndPruning || corridorCompression) && searchContext.getListener() == null) {
+            int[] path = searchReduced(maze, searchContext, start, exit, pathMetric);
+            query.expandedCount = searchContext.getExpandedCount();
+            query.edgesInspected = searchContext.getEdgesInspected();
+            if (cacheKey != null) {
+                cache.put(cacheKey, path);
             }
+            return publish(toNames(graph, path, path.length));
+        }
+        
+        // Run the search engine with this thread's search context
+        // The context keeps its arrays between queries, so nothing is allocated here
+        boolean found = chooseEngine(graph, pathMetric).search(graph, searchContext, start, exit);
+        query.expandedCount = searchContext.getExpandedCount();
+        query.edgesInspected = searchContext.getEdgesInspected();
+        
+        // Remember the answer (an empty path means EXIT is unreachable)
+        if (cacheKey != null) {
+            int length = found ? searchContext.getPathLength() : 0;
+            cache.put(cacheKey, Arrays.copyOf(searchContext.getPath(), length));
+        }
+        
+        if (found) {
+            // Convert the path ids stored in the context into node names
+            // Return the complete path from START to EXIT
+            return publish(toNames(graph, searchContext.getPath(), searchContext.getPathLength()));
         }
         
         // No path found
-        // Print message if the queue is empty and EXIT was not reached
-        System.out.println("No path found from START to EXIT!");
         // Return empty path list
-        return finalPath;
+        return publish(Collections.<String>emptyList());
+    }
+    
+    /**
+     * Connect two nodes of the loaded maze
+     * The shortest path from START is repaired incrementally, so the next
+     * findPath() only costs the length of the path. The new connection has the
+     * default weight (the distance between the two nodes).
+     * @param from Name of one node
+     * @param to Name of the other node
+     * @return true if the maze changed (false for unknown names or an existing connection)
+     */
+    public boolean addConnection(String from, String to) {
+        return edit(from, to, true);
+    }
+    
+    /**
+     * Disconnect two nodes of the loaded maze
+     * Only the subtree below the removed connection is repaired.
+     * @param from Name of one node
+     * @param to Name of the other node
+     * @return true if the maze changed (false for unknown names or a missing connection)
+     */
+    public boolean removeConnection(String from, String to) {
+        return edit(from, to, false);
     }
     
     /**
-     * Reconstruct the path from EXIT back to START using parent pointers
-     * @param exitNode The EXIT node to start backtracking from
+     * Add or remove one connection
+     * Edits are serialised with each other and with the snapshot swaps of loadMaze and close;
+     * queries on the edited maze wait for the write lock.
+     * @param from Name of one node
+     * @param to Name of the other node
+     * @param add true to add the connection, false to remove it
+     * @return true if the maze changed
      */
-    private void reconstructPath(Node exitNode) {
-        // Create a temporary list to build the path
-        List<String> path = new ArrayList<>();
-        // Start with the EXIT node
-        Node current = exitNode;
+    private synchronized boolean edit(String from, String to, boolean add) {
+        Snapshot maze = snapshot;
+        int a = maze.graph.idOf(from);
+        int b = maze.graph.idOf(to);
+        if (a < 0 || b < 0 || a == b) {
+            return false;
+        }
         
-        // Backtrack from EXIT to START using parent pointers
-        // Continue looping until we reach START (which has no parent)
-        while (current != null) {
-            // Add the current node's name to the path
-            path.add(current.getName());
-            // Move to the parent node (one step back towards START)
-            current = current.getParent();
+        if (maze.edits == null) {
+            // First edit: copy the connections into an editable graph and build the tree from START once
+            // (queries that already hold the old snapshot keep reading the unchanged loaded graph)
+            DynamicGraph copy = new DynamicGraph(maze.graph);
+            Snapshot edited = new Snapshot(copy, maze.numberOfNodes, maze.columns, maze.rows, maze.arena);
+            // The copy has the same connections, so the components already labelled still hold
+            edited.components = maze.components;
+            int start = copy.idOf(START);
+            if (start >= 0) {
+                edited.startTree = new IncrementalPathTree(copy, start);
+            }
+            snapshot = edited;
+            maze = edited;
         }
         
-        // Reverse the path to get START -> ... -> EXIT order
-        // Reverse the list so it goes from START to EXIT instead of EXIT to START
-        Collections.reverse(path);
-        // Store the reversed path as the final solution
-        finalPath = path;
+        maze.edits.writeLock().lock();
+        try {
+            DynamicGraph graph = (DynamicGraph) maze.graph;
+            boolean changed = add ? graph.addConnection(a, b) : graph.removeConnection(a, b);
+            if (!changed) {
+                return false;
+            }
+            // Repair the tree from START around the change
+            IncrementalPathTree tree = maze.startTree;
+            if (tree != null) {
+                if (add) {
+                    tree.connectionAdded(a, b);
+                } else {
+                    tree.connectionRemoved(a, b);
+                }
+                repairedCount = tree.getRepairedCount();
+            }
+            // Everything else derived from the graph is rebuilt when next asked for
+            // (an added connection inside one component leaves the components as they are)
+            ComponentIndex components = maze.components;
+            if (components != null && (!add || !components.connected(a, b))) {
+                maze.components = null;
+            }
+            maze.trees.clear();
+            maze.nodes = null;
+            maze.pruned = null;
+            maze.corridors = null;
+            return true;
+        } finally {
+            maze.edits.writeLock().unlock();
+        }
     }
     
     /**
-     * Get step-by-step path for animation purposes
-     * @return List of intermediate paths showing the search progress
+     * Lock an edited maze against edits while it is read
+     * @param maze Snapshot about to be read
+     * @return The read lock that was taken, or null for a maze that was never edited
      */
-    public List<List<String>> getAnimatedPath() {
-        // Create a list to store each step of the animation
-        List<List<String>> animationSteps = new ArrayList<>();
-        
-        // Reset all nodes
-        // Loop through all nodes to clear visited flags and parent pointers
-        for (Node node : nodes.values()) {
-            // Reset each node for a fresh search
-            node.reset();
+    private static Lock readLock(Snapshot maze) {
+        if (maze.edits == null) {
+            return null;
+        }
+        Lock lock = maze.edits.readLock();
+        lock.lock();
+        return lock;
+    }
+    
+    private static void unlock(Lock lock) {
+        // Release a lock taken by readLock
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Make a path the final path seen by getFinalPath()
+     * @param path Path found by a query
+     * @return The same path, read-only
+     */
+    private List<String> publish(List<String> path) {
+        List<String> result = Collections.unmodifiableList(path);
+        finalPath = result;
+        return result;
+    }
+    
+    /**
+     * Find the START to EXIT path on the pruned and/or corridor-compressed graph
+     * @param maze Loaded maze
+     * @param context Search state of the calling thread
+     * @param start Id of START in the maze's graph
+     * @param exit Id of EXIT in the maze's graph
+     * @param pathMetric What the search minimises
+     * @return Ids of the path in the maze's graph, empty if there is none
+     */
+    private int[] searchReduced(Snapshot maze, SearchContext context, int start, int exit, Metric pathMetric) {
+        Graph searched = maze.graph;
+        PrunedGraph pruned = null;
+        if (deadEndPruning) {
+            // START and EXIT are never pruned
+            pruned = prunedOf(maze);
+            searched = pruned.getCore();
+            start = pruned.coreId(start);
+            exit = pruned.coreId(exit);
         }
         
-        // Get the START node from the HashMap
-        Node startNode = nodes.get("START");
-        // If START node doesn't exist, return empty animation steps
-        if (startNode == null) return animationSteps;
-        
-        // BFS with step recording
-        // Create a queue for BFS traversal
-        Queue<Node> queue = new LinkedList<>();
-        // Add START node to the queue
-        queue.add(startNode);
-        // Mark START node as visited
-        startNode.setVisited(true);
-        
-        // Continue BFS until queue is empty
-        while (!queue.isEmpty()) {
-            // Remove and get the next node from the queue
-            Node currentNode = queue.poll();
-            
-            // Record current path for animation
-            // Create a list to store the current path to this node
-            List<String> currentStep = new ArrayList<>();
-            // Start with the current node
-            Node temp = currentNode;
-            // Backtrack from current node to START using parent pointers
-            while (temp != null) {
-                // Add each node's name to the current step
-                currentStep.add(temp.getName());
-                // Move to the parent node
-                temp = temp.getParent();
+        int[] path;
+        if (corridorCompression && searchEngine == null) {
+            // Search the junctions only and expand the corridors afterwards
+            // (a user-chosen engine runs on the uncompressed graph instead)
+            path = corridorsOf(maze, searched).findPath(context, start, exit, pathMetric);
+        } else if (chooseEngine(searched, pathMetric).search(searched, context, start, exit)) {
+            path = Arrays.copyOf(context.getPath(), context.getPathLength());
+        } else {
+            path = new int[0];
+        }
+        return pruned == null ? path : pruned.toOriginal(path, path.length);
+    }
+    
+    /**
+     * Get the graph that corridor compression starts from
+     * @param maze Loaded maze
+     * @return The pruned core if dead-end pruning is on, otherwise the full graph
+     */
+    private Graph searchGraphOf(Snapshot maze) {
+        return deadEndPruning ? prunedOf(maze).getCore() : maze.graph;
+    }
+    
+    /**
+     * Get the dead-end-pruned graph of a maze, building it the first time
+     * (two threads may both build it; the results are identical)
+     * @param maze Loaded maze
+     * @return Its PrunedGraph, with START and EXIT kept
+     */
+    private static PrunedGraph prunedOf(Snapshot maze) {
+        PrunedGraph pruned = maze.pruned;
+        if (pruned == null) {
+            Graph graph = maze.graph;
+            pruned = PrunedGraph.build(graph, graph.idOf(START), graph.idOf(EXIT));
+            maze.pruned = pruned;
+        }
+        return pruned;
+    }
+    
+    /**
+     * Get the corridor-compressed form of a graph of a maze, building it the first time
+     * (two threads may both build it; the results are identical)
+     * @param maze Loaded maze
+     * @param graph The maze's graph or its pruned core
+     * @return The CorridorGraph of that graph, with START and EXIT kept as junctions
+     */
+    private static CorridorGraph corridorsOf(Snapshot maze, Graph graph) {
+        CorridorGraph corridors = maze.corridors;
+        // Rebuilt if pruning was turned on or off since it was built
+        if (corridors == null || corridors.getOriginal() != graph) {
+            corridors = CorridorGraph.build(graph, graph.idOf(START), graph.idOf(EXIT));
+            maze.corridors = corridors;
+        }
+        return corridors;
+    }
+    
+    /**
+     * Decide what the next findPath minimises
+     * @param graph Graph that will be searched
+     * @return The metric set by the user, otherwise DISTANCE if the file gave weights and HOPS if not
+     */
+    private Metric effectiveMetric(Graph graph) {
+        Metric chosen = metric;
+        if (chosen != null) {
+            return chosen;
+        }
+        return graph.hasWeights() ? Metric.DISTANCE : Metric.HOPS;
+    }
+    
+    /**
+     * Choose the engine for the next search
+     * @param graph Graph that will be searched
+     * @param pathMetric What the search minimises
+     * @return The engine set by the user, otherwise Dijkstra for DISTANCE, parallel BFS for very large
+     *         mazes and plain BFS for the rest
+     */
+    private SearchEngine chooseEngine(Graph graph, Metric pathMetric) {
+        // An engine chosen by the user always wins
+        SearchEngine chosen = searchEngine;
+        if (chosen != null) {
+            return chosen;
+        }
+        // Weighted paths need Dijkstra (it picks a bucket queue or a heap from the weights)
+        if (pathMetric == Metric.DISTANCE) {
+            return dijkstraEngine;
+        }
+        // Parallel BFS only pays off when the maze is large and there is more than one core
+        if (graph.size() >= ParallelBfsEngine.PARALLEL_THRESHOLD
+                && Runtime.getRuntime().availableProcessors() > 1) {
+            return parallelEngine;
+        }
+        return bfsEngine;
+    }
+    
+    /**
+     * Find a shortest path between any two nodes using a cached shortest-path tree
+     * The first query from a source runs one full BFS; later queries from the same
+     * source only walk parent pointers. Does not change getFinalPath().
+     * Safe to call from several threads at once.
+     * @param source Name of the start node
+     * @param target Name of the goal node
+     * @return Read-only list of node names from source to target, or empty list if no path found
+     */
+    public List<String> findPath(String source, String target) {
+        // Look up both node ids in one snapshot of the maze
+        Snapshot maze = snapshot;
+        Lock lock = readLock(maze);
+        try {
+            int targetId = maze.graph.idOf(target);
+            // A target in another component is rejected before any tree is built
+            int sourceId = maze.graph.idOf(source);
+            if (sourceId >= 0 && targetId >= 0 && !componentsOf(maze).connected(sourceId, targetId)) {
+                return Collections.emptyList();
             }
-            // Reverse the path to go from START to current node
-            Collections.reverse(currentStep);
-            // Add a copy of this step to the animation steps list
-            animationSteps.add(new ArrayList<>(currentStep));
+            ShortestPathTree tree = getShortestPathTree(maze, source);
+            // Unknown names have no path
+            if (tree == null || targetId < 0) {
+                return Collections.emptyList();
+            }
+            // Walk the parent pointers from the target back to the source
+            return Collections.unmodifiableList(tree.namesTo(targetId));
+        } finally {
+            unlock(lock);
+        }
+    }
+    
+    /**
+     * Find the nearest target from any of several sources with one multi-source BFS
+     * Answers "which exit is closest to any entrance" without a search per
+     * entrance and exit pair. Paths are measured in connections, whatever the
+     * metric. Does not change getFinalPath(). Safe to call from several threads at once.
+     * @param sources Names of the start nodes (e.g., every entrance); unknown names are ignored
+     * @param targets Names of the goal nodes (e.g., every exit); unknown names are ignored
+     * @return The winning source and target and the path between them, or null if no target can be reached
+     */
+    public NearestPath findNearestPath(Collection<String> sources, Collection<String> targets) {
+        Snapshot maze = snapshot;
+        Lock lock = readLock(maze);
+        try {
+            Graph graph = maze.graph;
+            QueryState query = queryStates.get();
+            SearchContext searchContext = query.context;
+            searchContext.setListener(searchListener);
+            int[] sourceIds = toIds(graph, sources);
+            int[] targetIds = toIds(graph, targets);
             
-            // Check if we reached EXIT
-            // If current node is EXIT, stop the animation recording
-            if (currentNode.getName().equals("EXIT")) {
-                break;
+            // Skip the search when no target shares a component with any source
+            ComponentIndex components = componentsOf(maze);
+            Set<Integer> sourceComponents = new HashSet<>();
+            for (int id : sourceIds) {
+                sourceComponents.add(components.componentOf(id));
+            }
+            boolean reachable = false;
+            for (int id : targetIds) {
+                if (sourceComponents.contains(components.componentOf(id))) {
+                    reachable = true;
+                    break;
+                }
+            }
+            if (!reachable) {
+                query.expandedCount = 0;
+                query.edgesInspected = 0;
+                return null;
             }
             
-            // Explore connections
-            // Loop through all connected nodes
-            for (String connectionName : currentNode.getConnections()) {
-                // Get the connected node object
-                Node connectedNode = nodes.get(connectionName);
-                // If node exists and hasn't been visited
-                if (connectedNode != null && !connectedNode.isVisited()) {
-                    // Mark as visited
-                    connectedNode.setVisited(true);
-                    // Set current node as parent
-                    connectedNode.setParent(currentNode);
-                    // Add to queue for exploration
-                    queue.add(connectedNode);
+            int target = bfsEngine.searchNearest(graph, searchContext, sourceIds, sourceIds.length,
+                    targetIds, targetIds.length);
+            query.expandedCount = searchContext.getExpandedCount();
+            query.edgesInspected = searchContext.getEdgesInspected();
+            if (target < 0) {
+                return null;
+            }
+            // The path starts at the source the target was reached from
+            int[] path = searchContext.getPath();
+            return new NearestPath(graph.nameOf(path[0]), graph.nameOf(target),
+                    toNames(graph, path, searchContext.getPathLength()));
+        } finally {
+            unlock(lock);
+        }
+    }
+    
+    /**
+     * Look up the ids of node names
+     * @param graph Graph to look the names up in
+     * @param names Node names
+     * @return Ids of the names that exist
+     */
+    private static int[] toIds(Graph graph, Collection<String> names) {
+        int[] ids = new int[names.size()];
+        int count = 0;
+        for (String name : names) {
+            int id = graph.idOf(name);
+            if (id >= 0) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+    
+    /**
+     * Check whether there is any path between two nodes, without searching
+     * Answered in constant time from the component labels built when the maze was loaded.
+     * @param source Name of one node
+     * @param target Name of the other node
+     * @return true if both nodes exist and are connected
+     */
+    public boolean isReachable(String source, String target) {
+        Snapshot maze = snapshot;
+        Lock lock = readLock(maze);
+        try {
+            int sourceId = maze.graph.idOf(source);
+            int targetId = maze.graph.idOf(target);
+            return sourceId >= 0 && targetId >= 0 && componentsOf(maze).connected(sourceId, targetId);
+        } finally {
+            unlock(lock);
+        }
+    }
+    
+    /**
+     * Get the component labels of a maze, labelling it again if an edit made them stale
+     * @param maze Snapshot of the maze (read-locked if it was edited)
+     * @return Its ComponentIndex
+     */
+    private static ComponentIndex componentsOf(Snapshot maze) {
+        ComponentIndex components = maze.components;
+        if (components == null) {
+            // Two readers may both rebuild it; the labels are identical
+            components = ComponentIndex.build(maze.graph);
+            maze.components = components;
+        }
+        return components;
+    }
+    
+    /**
+     * Get the shortest-path tree rooted at a node, building it on first use
+     * @param source Name of the root node
+     * @return The tree, or null if there is no node with that name
+     */
+    public ShortestPathTree getShortestPathTree(String source) {
+        Snapshot maze = snapshot;
+        Lock lock = readLock(maze);
+        try {
+            return getShortestPathTree(maze, source);
+        } finally {
+            unlock(lock);
+        }
+    }
+    
+    /**
+     * Get a shortest-path tree of a snapshot, building it on first use
+     * Lookups do not lock; two threads that miss at the same time may both build the tree.
+     * @param maze Snapshot of the maze
+     * @param source Name of the root node
+     * @return The tree, or null if there is no node with that name
+     */
+    private static ShortestPathTree getShortestPathTree(Snapshot maze, String source) {
+        // Look up the id of the root node
+        int sourceId = maze.graph.idOf(source);
+        if (sourceId < 0) {
+            return null;
+        }
+        // Reuse the tree if this source was searched before
+        CachedTree cached = maze.trees.get(sourceId);
+        if (cached != null) {
+            cached.lastUsed = maze.clock.incrementAndGet();
+            return cached.tree;
+        }
+        // One full BFS answers every later query from this source
+        ShortestPathTree tree = ShortestPathTree.build(maze.graph, sourceId);
+        cached = new CachedTree(tree, maze.clock.incrementAndGet());
+        CachedTree previous = maze.trees.putIfAbsent(sourceId, cached);
+        if (previous != null) {
+            // Another thread stored the same tree first
+            return previous.tree;
+        }
+        // Drop the least recently used trees when the cache is full
+        while (maze.trees.size() > MAX_CACHED_TREES) {
+            Map.Entry<Integer, CachedTree> eldest = null;
+            for (Map.Entry<Integer, CachedTree> entry : maze.trees.entrySet()) {
+                if (eldest == null || entry.getValue().lastUsed < eldest.getValue().lastUsed) {
+                    eldest = entry;
                 }
             }
+            if (eldest == null) {
+                break;
+            }
+            maze.trees.remove(eldest.getKey(), eldest.getValue());
+        }
+        return tree;
+    }
+    
+    /**
+     * Convert a path of node ids into node names
+     * @param graph Graph the ids belong to
+     * @param path Node ids, START first
+     * @param length Number of valid entries in path
+     * @return List of node names in the same order
+     */
+    private static List<String> toNames(Graph graph, int[] path, int length) {
+        // Size the list exactly so it never has to grow
+        List<String> names = new ArrayList<>(length);
+        // Look up the name of each node on the path
+        for (int i = 0; i < length; i++) {
+            names.add(graph.nameOf(path[i]));
+        }
+        return names;
+    }
+    
+    /**
+     * Record the search from START to EXIT for step-by-step animation
+     * Uses the same engine and metric as findPath.
+     * Safe to call from several threads at once.
+     * @return Compact trace of the search (empty if there is no START node)
+     */
+    public SearchTrace traceSearch() {
+        // Search one snapshot of the maze with this thread's context
+        Snapshot maze = snapshot;
+        Lock lock = readLock(maze);
+        try {
+            return traceSearch(maze.graph);
+        } finally {
+            unlock(lock);
+        }
+    }
+    
+    /**
+     * Record the search from START to EXIT of one graph
+     * @param graph Graph of the maze (read-locked if it was edited)
+     * @return Compact trace of the search
+     */
+    private SearchTrace traceSearch(Graph graph) {
+        SearchContext searchContext = queryStates.get().context;
+        SearchListener listener = searchListener;
+        // Get the START and EXIT node ids
+        int start = graph.idOf(START);
+        int exit = graph.idOf(EXIT);
+        // If START node doesn't exist, return a trace with no steps
+        if (start < 0) return new SearchTrace(graph, new int[0], 0, new int[0]);
+        
+        // Record the expansion order; the user's listener still sees every event
+        TraceRecorder recorder = new TraceRecorder(graph.size(), listener);
+        searchContext.setListener(recorder);
+        try {
+            // Search with the engine findPath uses, so the last frame shows the path findPath returns
+            // (BFS, or Dijkstra on a weighted maze; it stops once EXIT is expanded)
+            chooseEngine(graph, effectiveMetric(graph)).search(graph, searchContext, start, exit);
+        } finally {
+            // Restore the user's listener for later searches
+            searchContext.setListener(listener);
         }
         
+        // Keep the expansion order and a copy of the parent array
+        return recorder.toTrace(graph, searchContext);
+    }
+    
+    /**
+     * Get step-by-step path for animation purposes
+     * @return List of intermediate paths showing the search progress
+     * @deprecated Stores a full copy of the path for every step, which grows as
+     *             O(nodes x depth); use traceSearch() and a SearchTrace.Cursor instead
+     */
+    @Deprecated
+    public List<List<String>> getAnimatedPath() {
+        // Create a list to store each step of the animation
+        List<List<String>> animationSteps = new ArrayList<>();
+        // Materialise every frame of the trace
+        SearchTrace trace = traceSearch();
+        for (int step = 0; step < trace.getStepCount(); step++) {
+            animationSteps.add(trace.pathAt(step));
+        }
         // Return the list of all animation steps
         return animationSteps;
     }
     
+    /**
+     * Print every node with its position and connections (debugging aid)
+     */
+    public void printDebugInfo() {
+        // Print a header line for debugging output
+        System.out.println("=== MAZE DEBUG INFO ===");
+        // Print the total number of nodes in the maze
+        System.out.println("Total nodes: " + snapshot.graph.size());
+        // Report how much of the maze dead-end pruning removed
+        if (deadEndPruning) {
+            System.out.println(getPrunedGraph());
+        }
+        // Loop through all nodes to display their information
+        for (Node node : getNodes().values()) {
+            // Print each node's name, coordinates, and connections
+            System.out.println(node.getName() + " at (" + node.getX() + "," + node.getY() + ") connects to: " + node.getConnections());
+        }
+        // Print a footer line for debugging output
+        System.out.println("=====================");
+    }
+    
+    /**
+     * Release the maze's references to the loaded maze and go back to an empty maze
+     * Nothing is freed here: off-heap memory is returned by the garbage collector once
+     * no graph, tree or listener handed out earlier still uses it, so those stay valid.
+     * Takes the edit lock, so a first edit running now cannot put the closed maze back.
+     */
+    @Override
+    public synchronized void close() {
+        Snapshot closing = snapshot;
+        snapshot = new Snapshot(new GraphBuilder(0).build(), 0, 0, 0, null);
+        finalPath = Collections.emptyList();
+        if (closing.arena != null) {
+            closing.arena.close();
+        }
+    }
+    
     // Getter methods
     public Map<String, Node> getNodes() {
-        // Return the HashMap containing all nodes in the maze
+        // Build the read-only node view from the graph the first time it is needed
+        // (two threads may both build it; the views are identical)
+        Snapshot maze = snapshot;
+        Map<String, Node> nodes = maze.nodes;
+        if (nodes == null) {
+            Lock lock = readLock(maze);
+            try {
+                nodes = buildNodes(maze.graph);
+                maze.nodes = nodes;
+            } finally {
+                unlock(lock);
+            }
+        }
+        // Return the map of all nodes in the maze, keyed by name
         return nodes;
     }
     
+    /**
+     * Build the read-only node view of a graph
+     * @param graph Graph of the maze (read-locked if it was edited)
+     * @return Nodes by name, in id order
+     */
+    private static Map<String, Node> buildNodes(Graph graph) {
+        // Keep file order so the view is stable between calls
+        Map<String, Node> view = new LinkedHashMap<>(graph.size() * 2);
+        // Create one Node per graph id
+        for (int id = 0; id < graph.size(); id++) {
+            Node node = new Node(graph.nameOf(id), graph.getX(id), graph.getY(id));
+            // Copy the node's neighbours as connection names
+            for (int e = graph.edgeStart(id); e < graph.edgeEnd(id); e++) {
+                node.addConnection(graph.nameOf(graph.target(e)));
+            }
+            view.put(node.getName(), node);
+        }
+        return Collections.unmodifiableMap(view);
+    }
+    
+    public Graph getGraph() {
+        // Return the compact graph the searches run on (safe to share between threads;
+        // after addConnection/removeConnection it is the maze's DynamicGraph, which keeps changing)
+        return snapshot.graph;
+    }
+    
     public int getColumns() {
         // Return the number of columns in the maze grid
-        return columns;
+        return snapshot.columns;
     }
     
     public int getRows() {
         // Return the number of rows in the maze grid
-        return rows;
+        return snapshot.rows;
     }
     
     public int getNumberOfNodes() {
         // Return the total number of nodes in the maze
-        return numberOfNodes;
+        return snapshot.numberOfNodes;
     }
     
     public List<String> getFinalPath() {
-        // Return the final solution path from START to EXIT
+        // Return the final solution path from START to EXIT (read-only, from the most recent findPath call)
         return finalPath;
     }
+    
+    public SearchEngine getSearchEngine() {
+        // Return the search algorithm chosen with setSearchEngine (null = chosen automatically by size)
+        return searchEngine;
+    }
+    
+    public SearchListener getSearchListener() {
+        // Return the trace listener attached to searches, or null
+        return searchListener;
+    }
+    
+    public int getExpandedCount() {
+        // Return how many nodes this thread's last findPath call expanded (0 if it was answered from the cache)
+        return queryStates.get().expandedCount;
+    }
+    
+    public long getEdgesInspected() {
+        // Return how many edges this thread's last findPath call checked (0 if it was answered from the cache)
+        return queryStates.get().edgesInspected;
+    }
+    
+    public int getRepairedCount() {
+        // Return how many nodes the last addConnection/removeConnection visited to repair the path from START
+        return repairedCount;
+    }
+    
+    public Metric getMetric() {
+        // Return what findPath minimises (null = chosen by whether the maze file gives weights)
+        return metric;
+    }
+    
+    public Storage getStorage() {
+        // Return where loadMaze keeps the graph
+        return storage;
+    }
+    
+    public boolean isCorridorCompression() {
+        // Return true if findPath searches the corridor-compressed graph
+        return corridorCompression;
+    }
+    
+    public boolean isDeadEndPruning() {
+        // Return true if findPath searches with the dead ends removed
+        return deadEndPruning;
+    }
+    
+    public ComponentIndex getComponentIndex() {
+        // Return the connected components of the loaded maze (labelled now if they were not yet)
+        Snapshot maze = snapshot;
+        Lock lock = readLock(maze);
+        try {
+            return componentsOf(maze);
+        } finally {
+            unlock(lock);
+        }
+    }
+    
+    public CorridorGraph getCorridorGraph() {
+        // Return the corridor-compressed graph of the loaded maze (built now if it was not yet)
+        // It is compressed from the pruned core while dead-end pruning is on
+        Snapshot maze = snapshot;
+        Lock lock = readLock(maze);
+        try {
+            return corridorsOf(maze, searchGraphOf(maze));
+        } finally {
+            unlock(lock);
+        }
+    }
+    
+    public PrunedGraph getPrunedGraph() {
+        // Return the loaded maze with its dead ends removed (built now if it was not yet);
+        // its toString() reports how much was removed
+        Snapshot maze = snapshot;
+        Lock lock = readLock(maze);
+        try {
+            return prunedOf(maze);
+        } finally {
+            unlock(lock);
+        }
+    }
+    
+    public SolutionCache getSolutionCache() {
+        // Return the cache of solved paths, or null if caching is off
+        return solutionCache;
+    }
+    
+    // Setter methods
+    public void setSearchEngine(SearchEngine searchEngine) {
+        // Choose the search algorithm used by findPath (e.g., BidirectionalBfsEngine); null picks one by maze size
+        // and metric (an engine set here should match the metric, e.g., DijkstraEngine for DISTANCE)
+        this.searchEngine = searchEngine;
+    }
+    
+    public void setMetric(Metric metric) {
+        // Choose what findPath minimises; null measures by weight only when the file gives weights
+        this.metric = metric;
+    }
+    
+    public void setStorage(Storage storage) {
+        // Choose where the next loadMaze keeps the graph (the loaded maze is not moved)
+        this.storage = storage;
+    }
+    
+    public void setCorridorCompression(boolean corridorCompression) {
+        // Collapse corridors before searching; turned on before loadMaze, the compression is part of loading
+        this.corridorCompression = corridorCompression;
+    }
+    
+    public void setDeadEndPruning(boolean deadEndPruning) {
+        // Remove dead-end branches before searching; turned on before loadMaze, the pruning is part of loading
+        this.deadEndPruning = deadEndPruning;
+    }
+    
+    public void setSolutionCache(SolutionCache solutionCache) {
+        // Use another solution cache (null turns caching off)
+        this.solutionCache = solutionCache;
+    }
+    
+    public void setSearchListener(SearchListener searchListener) {
+        // Attach a trace listener to all searches (e.g., ConsoleSearchListener); null detaches it
+        // Each thread's context picks it up at the start of its next search
+        this.searchListener = searchListener;
+    }
 }
\ No newline at end of file
@@ -16,7 +16,13 @@ public class MazeApp {
     /**
      * @param args the command line arguments
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // With arguments, solve the given maze files headless instead of opening the window
+        if (args.length > 0) {
+            BatchSolver.main(args);
+            return;
+        }
+
         // TODO code application logic here
         JFrame frame = new JFrame("Maze");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -0,0 +1,276 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//MazeGenerator writes large random mazes in the maze file format
+
+package maze;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/*
+Seeded generator of synthetic mazes
+
+Writes the same format loadMaze reads: a numberOfNodes,columns,rows header,
+then one name,x,y,connection,connection row per node, with A for no
+connection and W for a connection to EXIT. Node 0 is START, the last node is
+EXIT and the others are N1, N2, ...
+
+Every row is computed from its own index and the seed alone (a stateless
+hash instead of a shared Random), so the generator keeps nothing about rows
+it has already written. Memory use is the same for a hundred nodes and for
+hundreds of millions, and the same shape, size and seed always give the
+same file.
+
+Usage:
+    java -cp bin maze.MazeGenerator <CORRIDOR|TREE|GRID|LOOPS> <nodes> [seed] [file]
+ */
+public class MazeGenerator {
+
+    // Branching shapes of the generated mazes
+    public enum Shape {
+        CORRIDOR, // Long corridors with an occasional side branch, no loops
+        TREE,     // Every node hangs off a random earlier node, no loops
+        GRID,     // Perfect maze on a grid (binary-tree algorithm), no loops
+        LOOPS     // Grid maze with about half of the other walls opened too
+    }
+
+    // One node in CORRIDOR_BRANCH starts a side branch, the rest extend the corridor
+    private static final int CORRIDOR_BRANCH = 16;
+
+    private final Shape shape;   // Branching shape
+
+    private final int size;      // Number of nodes
+
+    private final long seed;     // Seed of the per-row hash
+
+    private final int columns;   // Width of the layout
+
+    private final int rows;      // Height of the layout
+
+    // Output buffer, so rows are written without creating Strings
+    private final byte[] buffer = new byte[1 << 16];
+
+    private int position;        // Bytes waiting in the buffer
+
+    /*
+    Constructor
+
+    @param shape Branching shape
+
+    @param size Number of nodes (at least 2, for START and EXIT)
+
+    @param seed Seed; the same seed gives the same maze
+     */
+    public MazeGenerator(Shape shape, int size, long seed) {
+        if (size < 2) {
+            throw new IllegalArgumentException("A maze needs at least START and EXIT");
+        }
+        this.shape = shape;
+        this.size = size;
+        this.seed = seed;
+        // Lay the nodes out on a roughly square grid
+        this.columns = (int) Math.ceil(Math.sqrt(size));
+        this.rows = (int) ((size + (long) columns - 1) / columns);
+    }
+
+    /*
+    Write the maze to a file
+
+    @param fileName Name of the file to create
+     */
+    public void write(String fileName) throws IOException {
+        try (OutputStream out = new FileOutputStream(fileName)) {
+            write(out);
+        }
+    }
+
+    /*
+    Write the maze to a stream, one row at a time
+
+    @param out Destination (not closed)
+     */
+    public void write(OutputStream out) throws IOException {
+        position = 0;
+
+        // Header: numberOfNodes,columns,rows
+        putInt(out, size);
+        put(out, ',');
+        putInt(out, columns);
+        put(out, ',');
+        putInt(out, rows);
+        put(out, '\n');
+
+        for (int i = 0; i < size; i++) {
+            long random = hash(i);
+            int first = -1;    // First connection, -1 for none
+            int second = -1;   // Second connection, -1 for none
+
+            switch (shape) {
+                case CORRIDOR:
+                    // Mostly continue the corridor, sometimes branch off an earlier node
+                    if (i > 0) {
+                        first = (random >>> 1) % CORRIDOR_BRANCH == 0 ? randomBelow(random, i) : i - 1;
+                    }
+                    break;
+                case TREE:
+                    // Random recursive tree: the parent is any earlier node
+                    if (i > 0) {
+                        first = randomBelow(random, i);
+                    }
+                    break;
+                case GRID:
+                case LOOPS:
+                    // Binary-tree algorithm: open the wall to the right or below
+                    int right = i % columns + 1 < columns && i + 1 < size ? i + 1 : -1;
+                    int down = (long) i + columns < size ? i + columns : -1;
+                    boolean goRight = (random & 1) == 0;
+                    if (right >= 0 && (goRight || down < 0)) {
+                        first = right;
+                        second = down;
+                    } else if (down >= 0) {
+                        first = down;
+                        second = right;
+                    } else if (i + 1 < size) {
+                        // Last column above a short last row: carry on to the next node
+                        first = i + 1;
+                    }
+                    // Only loop-rich mazes open the other wall too, half of the time
+                    if (shape == Shape.GRID || (random & 2) == 0) {
+                        second = -1;
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown shape " + shape);
+            }
+
+            // name,x,y,connection,connection
+            putName(out, i);
+            put(out, ',');
+            putInt(out, i % columns);
+            put(out, ',');
+            putInt(out, i / columns);
+            put(out, ',');
+            putConnection(out, first);
+            put(out, ',');
+            putConnection(out, second);
+            put(out, '\n');
+        }
+
+        out.write(buffer, 0, position);
+        out.flush();
+    }
+
+    /*
+    Stateless random bits for one row (SplitMix64 finaliser)
+
+    @param index Row index
+
+    @return 64 random bits that depend only on the seed and the index
+     */
+    private long hash(long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /*
+    Pick a node below a bound from random bits
+
+    @param random Random bits
+
+    @param bound Exclusive upper bound
+
+    @return A value in 0 .. bound-1
+     */
+    private static int randomBelow(long random, int bound) {
+        // Use the high bits; the low ones pick the branch and wall directions
+        return (int) ((random >>> 8) % bound);
+    }
+
+    private void putName(OutputStream out, int id) throws IOException {
+        // START, EXIT or N followed by the index
+        if (id == 0) {
+            putAscii(out, Maze.START);
+        } else if (id == size - 1) {
+            putAscii(out, Maze.EXIT);
+        } else {
+            put(out, 'N');
+            putInt(out, id);
+        }
+    }
+
+    private void putConnection(OutputStream out, int id) throws IOException {
+        // A for no connection, W for EXIT, otherwise the node's name
+        if (id < 0) {
+            put(out, 'A');
+        } else if (id == size - 1) {
+            put(out, 'W');
+        } else {
+            putName(out, id);
+        }
+    }
+
+    private void putAscii(OutputStream out, String text) throws IOException {
+        // Write a short ASCII string
+        for (int i = 0; i < text.length(); i++) {
+            put(out, text.charAt(i));
+        }
+    }
+
+    private void putInt(OutputStream out, int value) throws IOException {
+        // Write a non-negative int in decimal
+        if (position + 10 > buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int p = position + digits - 1; p >= position; p--) {
+            buffer[p] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    private void put(OutputStream out, char c) throws IOException {
+        // Write one ASCII character
+        if (position == buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        buffer[position++] = (byte) c;
+    }
+
+    /*
+    Command line entry point
+
+    @param args Shape, number of nodes, optional seed and optional output file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java -cp bin maze.MazeGenerator <CORRIDOR|TREE|GRID|LOOPS> <nodes> [seed] [file]");
+            System.exit(2);
+        }
+        Shape shape = Shape.valueOf(args[0].toUpperCase());
+        int size = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        MazeGenerator generator = new MazeGenerator(shape, size, seed);
+
+        if (args.length > 3) {
+            generator.write(args[3]);
+        } else {
+            // Without a file name the maze goes to standard output
+            OutputStream out = new BufferedOutputStream(System.out);
+            generator.write(out);
+        }
+    }
+}
@@ -0,0 +1,579 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//MazeParser reads a maze file in one pass straight from its bytes
+
+package maze;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+Single-pass parser of the maze text format
+
+Reads the bytes once, cuts rows and fields at '\n' and ',' itself (no split,
+no regular expressions, no String per field) and interns every name in a
+byte-keyed NameTable. The header's numberOfNodes presizes all arrays.
+
+Connections may name nodes whose rows come later, so every name gets a table
+id when it is first seen and nodes get their final ids in row order when the
+graph is built. The result is the same graph the old line-by-line loader
+built: unknown names and self-loops are dropped, a repeated row moves the
+node and adds its connections, "A" means no connection and "W" means EXIT.
+Blank lines and Windows line endings are accepted.
+
+Two optional columns after the connections give their weights:
+
+    name,x,y,connection1,connection2,weight1,weight2
+
+A weight field holds a finite non-negative number. Any other field there
+(empty, "-", a note in an older file, a negative or malformed number) is
+ignored, and the connection gets the default weight: the Euclidean distance
+between the nodes. One real weight anywhere in the file makes it weighted.
+ */
+public final class MazeParser {
+
+    // Never presize beyond this many nodes from the header alone (larger mazes grow as needed)
+    private static final int MAX_PRESIZE = 1 << 26;
+
+    // Presize limit when the file length is not known
+    private static final int STREAM_PRESIZE = 1 << 16;
+
+    // Bytes in the shortest possible row, "A,0,0,A,A\n"
+    private static final int MIN_ROW_BYTES = 10;
+
+    private final int presizeLimit;  // Most rows the header may presize for (the header is only a hint)
+
+    // Header values
+    private boolean headerRead;   // true once the header line has been parsed
+
+    private int headerNodes;      // numberOfNodes from the header
+
+    private int headerColumns;    // columns from the header
+
+    private int headerRows;       // rows from the header
+
+    // Every name seen so far, in rows or in connections
+    private NameTable names;
+
+    private int[] rowOfName;      // Row id of each name id, -1 while its row has not been read
+
+    private int exitName;         // Name id of "EXIT", the target of W connections
+
+    // Node rows, indexed by row id
+    private int[] nameOfRow;      // Name id of each row
+
+    private int[] xs;             // X coordinates
+
+    private int[] ys;             // Y coordinates
+
+    private int rowCount;         // Number of distinct rows
+
+    // Connections, resolved when the graph is built
+    private int[] edgeFrom;       // Row id of the row that listed the connection
+
+    private int[] edgeTo;         // Name id of the connected node
+
+    private double[] edgeWeight;  // Weight of each connection, NaN = default (null until a weight is read)
+
+    private int edgeCount;        // Number of connections
+
+    private long lineNumber;      // Number of lines read, for error messages
+
+    /*
+    Constructor creates an empty parser for a stream of unknown length
+
+    The header presizes the arrays for at most STREAM_PRESIZE rows; larger
+    mazes grow as they are read.
+     */
+    public MazeParser() {
+        this(-1);
+    }
+
+    /*
+    Constructor creates an empty parser for a file of known length
+
+    The header presizes the arrays, but never for more rows than the file
+    has room for, so a header that overstates the node count costs nothing.
+
+    @param fileSize Length of the file in bytes, or -1 if not known
+     */
+    public MazeParser(long fileSize) {
+        presizeLimit = fileSize < 0 ? STREAM_PRESIZE : maxRows(fileSize);
+        allocate(16);
+    }
+
+    /*
+    Most rows a piece of a file can hold, capped at MAX_PRESIZE
+
+    @param bytes Length of the piece
+
+    @return Number of rows
+     */
+    private static int maxRows(long bytes) {
+        return (int) Math.min(MAX_PRESIZE, bytes / MIN_ROW_BYTES + 16);
+    }
+
+    /*
+    Create a parser for a piece of a file that has no header line
+
+    Used by ParallelMazeLoader, which parses the header itself.
+
+    @param expectedNodes Expected number of rows in the piece
+
+    @param length Length of the piece in bytes
+
+    @return The parser
+     */
+    static MazeParser forChunk(int expectedNodes, long length) {
+        MazeParser parser = new MazeParser(length);
+        parser.headerRead = true;
+        parser.ensureNodes(Math.min(Math.max(expectedNodes, 16), parser.presizeLimit));
+        return parser;
+    }
+
+    /*
+    Read a whole maze file from a stream
+
+    @param in Stream positioned at the header (not closed)
+     */
+    public void parse(InputStream in) throws IOException {
+        byte[] data = new byte[1 << 16];
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int filled = 0;
+
+        while (true) {
+            int read = in.read(data, filled, data.length - filled);
+            if (read < 0) {
+                break;
+            }
+            filled += read;
+
+            // Parse every complete line and keep the unfinished one for the next read
+            int end = lastNewline(buffer, 0, filled) + 1;
+            if (end > 0) {
+                parseLines(buffer, 0, end);
+                System.arraycopy(data, end, data, 0, filled - end);
+                filled -= end;
+            } else if (filled == data.length) {
+                // One line longer than the buffer: make room for the rest of it
+                data = Arrays.copyOf(data, data.length * 2);
+                buffer = ByteBuffer.wrap(data);
+            }
+        }
+
+        // The last line may have no newline
+        if (filled > 0) {
+            parseLines(buffer, 0, filled);
+        }
+    }
+
+    /*
+    Parse complete lines
+
+    @param buffer Bytes of the file (only absolute gets are used)
+
+    @param from Index of the first byte of the first line
+
+    @param to Index just past the last line (after its '\n', or the end of the file)
+     */
+    void parseLines(ByteBuffer buffer, int from, int to) throws IOException {
+        int start = from;
+        while (start < to) {
+            int end = start;
+            while (end < to && buffer.get(end) != '\n') {
+                end++;
+            }
+            lineNumber++;
+
+            // Ignore a '\r' before the '\n'
+            int lineEnd = end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+            if (lineEnd > start) {
+                if (headerRead) {
+                    parseRow(buffer, start, lineEnd);
+                } else {
+                    parseHeader(buffer, start, lineEnd);
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /*
+    Parse the numberOfNodes,columns,rows line and presize for it
+
+    @param buffer File bytes
+
+    @param start Index of the first byte of the line
+
+    @param end Index just past the line
+     */
+    void parseHeader(ByteBuffer buffer, int start, int end) throws IOException {
+        int comma1 = indexOf(buffer, ',', start, end);
+        int comma2 = indexOf(buffer, ',', comma1 + 1, end);
+        int comma3 = indexOf(buffer, ',', comma2 + 1, end);
+        if (comma2 >= end) {
+            throw error("header must be numberOfNodes,columns,rows");
+        }
+        headerNodes = parseInt(buffer, start, comma1);
+        headerColumns = parseInt(buffer, comma1 + 1, comma2);
+        headerRows = parseInt(buffer, comma2 + 1, comma3);
+        headerRead = true;
+
+        // One row and up to two connections per node, as far as the file has room for them
+        ensureNodes(Math.min(Math.max(headerNodes, 0), presizeLimit));
+    }
+
+    /*
+    Parse one name,x,y,connection,connection[,weight,weight] row
+
+    @param buffer File bytes
+
+    @param start Index of the first byte of the line
+
+    @param end Index just past the line
+     */
+    private void parseRow(ByteBuffer buffer, int start, int end) throws IOException {
+        // Find the field boundaries; fields after the two weights are ignored
+        int comma1 = indexOf(buffer, ',', start, end);
+        int comma2 = indexOf(buffer, ',', comma1 + 1, end);
+        int comma3 = indexOf(buffer, ',', comma2 + 1, end);
+        int comma4 = indexOf(buffer, ',', comma3 + 1, end);
+        if (comma4 >= end) {
+            throw error("row must be name,x,y,connection,connection");
+        }
+        int comma5 = indexOf(buffer, ',', comma4 + 1, end);
+        int comma6 = comma5 < end ? indexOf(buffer, ',', comma5 + 1, end) : end;
+        int comma7 = comma6 < end ? indexOf(buffer, ',', comma6 + 1, end) : end;
+
+        // Look up or add the node itself
+        int name = names.intern(buffer, start, comma1 - start);
+        growNames();
+        int row = rowOfName[name];
+        if (row < 0) {
+            if (rowCount == nameOfRow.length) {
+                ensureNodes(rowCount * 2);
+            }
+            row = rowCount++;
+            rowOfName[name] = row;
+            nameOfRow[row] = name;
+        }
+        // A repeated row only moves the node
+        xs[row] = parseInt(buffer, comma1 + 1, comma2);
+        ys[row] = parseInt(buffer, comma2 + 1, comma3);
+
+        // Both connections, with their weights if the row has them
+        double weight1 = comma5 < end ? parseWeight(buffer, comma5 + 1, comma6) : Double.NaN;
+        double weight2 = comma6 < end ? parseWeight(buffer, comma6 + 1, comma7) : Double.NaN;
+        addConnection(row, buffer, comma3 + 1, comma4, weight1);
+        addConnection(row, buffer, comma4 + 1, comma5, weight2);
+    }
+
+    /*
+    Record one connection field
+
+    @param row Row id of the node whose row lists it
+
+    @param buffer File bytes
+
+    @param start Index of the first byte of the field
+
+    @param end Index just past the field
+
+    @param weight Weight of the connection (NaN = default)
+     */
+    private void addConnection(int row, ByteBuffer buffer, int start, int end, double weight) {
+        int to;
+        if (end - start == 1 && buffer.get(start) == 'A') {
+            // A means no connection
+            return;
+        } else if (end - start == 1 && buffer.get(start) == 'W') {
+            // W is a connection to EXIT
+            to = exitName;
+        } else {
+            to = names.intern(buffer, start, end - start);
+            growNames();
+        }
+
+        if (edgeCount == edgeFrom.length) {
+            int capacity = edgeCount * 2;
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            if (edgeWeight != null) {
+                edgeWeight = GraphBuilder.growWeights(edgeWeight, capacity);
+            }
+        }
+        // Files without weights never allocate the weight array
+        if (edgeWeight == null && !Double.isNaN(weight)) {
+            edgeWeight = GraphBuilder.growWeights(new double[0], edgeFrom.length);
+        }
+        edgeFrom[edgeCount] = row;
+        edgeTo[edgeCount] = to;
+        if (edgeWeight != null) {
+            edgeWeight[edgeCount] = weight;
+        }
+        edgeCount++;
+    }
+
+    /*
+    Build the graph once the whole file has been parsed (call only once)
+
+    @return The immutable graph, nodes numbered in row order
+     */
+    public Graph build() throws IOException {
+        if (!headerRead) {
+            throw new IOException("Empty maze file");
+        }
+
+        // Number the names by row; names that never had a row drop out
+        int n = rowCount;
+        names.trim();
+        names.renumber(nameOfRow, n);
+
+        // Name ids become row ids; names that never had a row become -1
+        for (int i = 0; i < edgeCount; i++) {
+            edgeTo[i] = rowOfName[edgeTo[i]];
+        }
+
+        return GraphBuilder.pack(names, xs, ys, n, edgeFrom, edgeTo, edgeWeight, edgeCount);
+    }
+
+    public int getHeaderNodes() {
+        // Return numberOfNodes from the header
+        return headerNodes;
+    }
+
+    public int getHeaderColumns() {
+        // Return the number of columns from the header
+        return headerColumns;
+    }
+
+    public int getHeaderRows() {
+        // Return the number of rows from the header
+        return headerRows;
+    }
+
+    boolean isHeaderRead() {
+        // Return true once the header line has been parsed
+        return headerRead;
+    }
+
+    // Raw parse results, read by ParallelMazeLoader when it merges pieces
+    NameTable getNames() {
+        return names;
+    }
+
+    int[] getNameOfRow() {
+        return nameOfRow;
+    }
+
+    int[] getXs() {
+        return xs;
+    }
+
+    int[] getYs() {
+        return ys;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    int[] getEdgeFrom() {
+        return edgeFrom;
+    }
+
+    int[] getEdgeTo() {
+        return edgeTo;
+    }
+
+    double[] getEdgeWeight() {
+        return edgeWeight;
+    }
+
+    int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /*
+    Create the arrays for an expected number of nodes
+
+    @param nodes Expected number of nodes
+     */
+    private void allocate(int nodes) {
+        names = new NameTable(nodes, nodes * 8);
+        byte[] exit = Maze.EXIT.getBytes(StandardCharsets.US_ASCII);
+        exitName = names.intern(ByteBuffer.wrap(exit), 0, exit.length);
+        rowOfName = new int[nodes];
+        Arrays.fill(rowOfName, -1);
+        nameOfRow = new int[nodes];
+        xs = new int[nodes];
+        ys = new int[nodes];
+        edgeFrom = new int[nodes * 2];
+        edgeTo = new int[nodes * 2];
+        edgeWeight = null;
+    }
+
+    /*
+    Make room for at least the given number of node rows
+
+    @param nodes Number of rows
+     */
+    private void ensureNodes(int nodes) {
+        if (rowCount == 0 && edgeCount == 0 && nodes > xs.length) {
+            // Nothing parsed yet: start over at the right size
+            allocate(nodes);
+            return;
+        }
+        if (nodes > xs.length) {
+            nameOfRow = Arrays.copyOf(nameOfRow, nodes);
+            xs = Arrays.copyOf(xs, nodes);
+            ys = Arrays.copyOf(ys, nodes);
+        }
+    }
+
+    /*
+    Keep rowOfName as long as the name table
+     */
+    private void growNames() {
+        if (names.size() > rowOfName.length) {
+            int old = rowOfName.length;
+            rowOfName = Arrays.copyOf(rowOfName, Math.max(old * 2, names.size()));
+            Arrays.fill(rowOfName, old, rowOfName.length, -1);
+        }
+    }
+
+    /*
+    Parse a decimal int field
+
+    @param buffer File bytes
+
+    @param start Index of the first byte
+
+    @param end Index just past the field
+
+    @return The value
+     */
+    private int parseInt(ByteBuffer buffer, int start, int end) throws IOException {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            throw error("number expected");
+        }
+        // Accumulate as a negative number so Integer.MIN_VALUE fits
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw error("number expected");
+            }
+            if (value < (Integer.MIN_VALUE + digit) / 10) {
+                throw error("number too large");
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Integer.MIN_VALUE) {
+                throw error("number too large");
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    /*
+    Parse an optional weight field
+
+    @param buffer File bytes
+
+    @param start Index of the first byte
+
+    @param end Index just past the field
+
+    @return The weight, or NaN if the field is not a finite non-negative number
+     */
+    private double parseWeight(ByteBuffer buffer, int start, int end) {
+        // Trailing spaces are not part of the number
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return Double.NaN;
+        }
+        byte first = buffer.get(start);
+        if ((first < '0' || first > '9') && first != '.' && first != '+') {
+            // Not meant as a weight (this also skips "-" and negative numbers)
+            return Double.NaN;
+        }
+        byte[] text = new byte[end - start];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = buffer.get(start + i);
+        }
+        double weight;
+        try {
+            weight = Double.parseDouble(new String(text, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            // Starts like a number but is not one, e.g. "1.2.3": ignored like any other note
+            return Double.NaN;
+        }
+        // Infinity cannot be written starting with a digit, but "1e999" overflows to it
+        return Double.isInfinite(weight) ? Double.NaN : weight;
+    }
+
+    /*
+    Find a byte
+
+    @param buffer File bytes
+
+    @param b Byte to look for
+
+    @param from First index to check
+
+    @param end Index just past the range
+
+    @return Index of the byte, or end if it is not there
+     */
+    private static int indexOf(ByteBuffer buffer, char b, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /*
+    Find the last newline in a range
+
+    @param buffer File bytes
+
+    @param from First index to check
+
+    @param end Index just past the range
+
+    @return Index of the last '\n', or from - 1 if there is none
+     */
+    static int lastNewline(ByteBuffer buffer, int from, int end) {
+        for (int i = end - 1; i >= from; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return from - 1;
+    }
+
+    private IOException error(String message) {
+        // Exception for a malformed line
+        return new IOException("Line " + lineNumber + ": " + message);
+    }
+}
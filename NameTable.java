@@ -0,0 +1,350 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//NameTable interns node names as raw bytes and gives each distinct name a dense id
+
+package maze;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+Byte-keyed intern table for node names
+
+All names are stored back to back in one byte array (UTF-8, exactly as they
+appear in the maze file), so a name costs its bytes plus one int instead of a
+String object and a HashMap entry. Lookups hash the bytes directly, so the
+parser never has to create a String to find out whether a name is new.
+Ids are given out in the order names are first added, unless the table is
+renumbered once it is complete (see renumber).
+ */
+final class NameTable {
+
+    private byte[] bytes;     // All names, back to back
+
+    private int byteCount;    // Bytes in use
+
+    private int[] starts;     // Name entry e is bytes[starts[e] .. starts[e+1]-1]
+
+    private int count;        // Number of stored names
+
+    private int[] slots;      // Open-addressing hash table of entry+1 (0 = empty slot)
+
+    // Optional renumbering (null = ids are entry numbers in insertion order)
+    private int[] idOfEntry;  // Public id of each stored name, -1 for names without one
+
+    private int[] entryOfId;  // Stored name of each public id
+
+    private int idCount;      // Number of public ids after renumbering
+
+    /*
+    Constructor presizes the table
+
+    @param expectedNames Expected number of distinct names
+
+    @param expectedBytes Expected total length of the names
+     */
+    NameTable(int expectedNames, int expectedBytes) {
+        int names = Math.max(expectedNames, 4);
+        bytes = new byte[Math.max(expectedBytes, 16)];
+        starts = new int[names + 1];
+        slots = new int[tableSize(names)];
+    }
+
+    /*
+    Constructor wraps names and a hash table that were built elsewhere
+
+    Used by ParallelMazeLoader, which fills the hash table in parallel. The
+    table must have been built with hash() and linear probing, at most 3/4 full.
+
+    @param bytes All names, back to back
+
+    @param starts Name id is bytes[starts[id] .. starts[id+1]-1]
+
+    @param count Number of names
+
+    @param slots Hash table of id+1 (0 = empty), length a power of two
+     */
+    NameTable(byte[] bytes, int[] starts, int count, int[] slots) {
+        this.bytes = bytes;
+        this.byteCount = starts[count];
+        this.starts = starts;
+        this.count = count;
+        this.slots = slots;
+    }
+
+    /*
+    Copy the names of some nodes of a graph into a new table
+
+    Used for graphs derived from another one (e.g., CorridorGraph, PrunedGraph).
+
+    @param graph Graph to copy the names from
+
+    @param ids Ids of the nodes to copy; ids[i] gets id i in the new table
+
+    @return The trimmed table
+     */
+    static NameTable copyOf(Graph graph, int[] ids) {
+        NameTable table = new NameTable(ids.length, ids.length * 8);
+        byte[] name = new byte[64];
+        for (int id : ids) {
+            int length = graph.nameLength(id);
+            if (length > name.length) {
+                name = new byte[Math.max(length, name.length * 2)];
+            }
+            graph.getNameBytes(id, name, 0);
+            table.intern(ByteBuffer.wrap(name), 0, length);
+        }
+        table.trim();
+        return table;
+    }
+
+    int size() {
+        // Return the number of distinct names (after renumbering, the number of ids)
+        return entryOfId == null ? count : idCount;
+    }
+
+    /*
+    Find or add a name
+
+    @param source Buffer holding the name bytes
+
+    @param from Index of the first byte
+
+    @param length Number of bytes
+
+    @return The id of the name
+     */
+    int intern(ByteBuffer source, int from, int length) {
+        int hash = hash(source, from, length);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                // Not present: add it in this empty slot
+                return add(source, from, length, slot);
+            }
+            if (matches(id, source, from, length)) {
+                return id;
+            }
+        }
+    }
+
+    /*
+    Find a name without adding it
+
+    @param source Buffer holding the name bytes
+
+    @param from Index of the first byte
+
+    @param length Number of bytes
+
+    @return The id of the name, or -1 if it is not in the table
+     */
+    int find(ByteBuffer source, int from, int length) {
+        int mask = slots.length - 1;
+        for (int slot = hash(source, from, length) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (matches(entry, source, from, length)) {
+                return idOfEntry == null ? entry : idOfEntry[entry];
+            }
+        }
+    }
+
+    /*
+    Find a name given as a String
+
+    @param name Name to look up
+
+    @return The id of the name, or -1 if it is not in the table
+     */
+    int find(String name) {
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        return find(ByteBuffer.wrap(encoded), 0, encoded.length);
+    }
+
+    /*
+    Give the names new ids once no more names will be added
+
+    Used by the parser, which interns names in the order they first appear
+    (connections can name nodes before their rows) but numbers nodes in row
+    order. Names that get no new id can no longer be found.
+
+    @param entryOfId Current id of the name that gets each new id (kept, not copied)
+
+    @param count Number of new ids
+     */
+    void renumber(int[] entryOfId, int count) {
+        idOfEntry = new int[this.count];
+        Arrays.fill(idOfEntry, -1);
+        for (int id = 0; id < count; id++) {
+            idOfEntry[entryOfId[id]] = id;
+        }
+        this.entryOfId = entryOfId;
+        this.idCount = count;
+    }
+
+    String nameOf(int id) {
+        // Decode the name bytes into a String
+        int entry = entryOfId == null ? id : entryOfId[id];
+        return new String(bytes, starts[entry], starts[entry + 1] - starts[entry], StandardCharsets.UTF_8);
+    }
+
+    int start(int id) {
+        // Return the index of the name's first byte in bytes()
+        return starts[entryOfId == null ? id : entryOfId[id]];
+    }
+
+    int length(int id) {
+        // Return the number of bytes of the name
+        int entry = entryOfId == null ? id : entryOfId[id];
+        return starts[entry + 1] - starts[entry];
+    }
+
+    byte[] bytes() {
+        // Return the byte array holding all names (not a copy)
+        return bytes;
+    }
+
+    /*
+    Hash of a name's bytes (FNV-1a with the MurmurHash3 finaliser)
+
+    @param source Buffer holding the name bytes
+
+    @param from Index of the first byte
+
+    @param length Number of bytes
+
+    @return The hash
+     */
+    static int hash(ByteBuffer source, int from, int length) {
+        int hash = 0x811C9DC5;
+        for (int i = from, end = from + length; i < end; i++) {
+            hash = (hash ^ source.get(i)) * 0x01000193;
+        }
+        // FNV-1a alone leaves the low bits of similar names (N1, N2, ...) clustered,
+        // which makes long probe runs; the finaliser spreads every input bit
+        hash = (hash ^ (hash >>> 16)) * 0x85EBCA6B;
+        hash = (hash ^ (hash >>> 13)) * 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /*
+    Compare a stored name with bytes in a buffer
+
+    @param id Id of the stored name
+
+    @param source Buffer holding the other bytes
+
+    @param from Index of the first byte
+
+    @param length Number of bytes
+
+    @return true if they are the same name
+     */
+    private boolean matches(int id, ByteBuffer source, int from, int length) {
+        int start = starts[id];
+        if (starts[id + 1] - start != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[start + i] != source.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+    Store a new name
+
+    @param source Buffer holding the name bytes
+
+    @param from Index of the first byte
+
+    @param length Number of bytes
+
+    @param slot Empty hash slot found for it
+
+    @return The id of the new name
+     */
+    private int add(ByteBuffer source, int from, int length, int slot) {
+        // Grow the byte store when full
+        if (byteCount + length > bytes.length) {
+            long capacity = Math.max((long) bytes.length * 2, (long) byteCount + length);
+            if (capacity > Integer.MAX_VALUE - 8) {
+                if ((long) byteCount + length > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Node names take more than 2 GB");
+                }
+                capacity = Integer.MAX_VALUE - 8;
+            }
+            bytes = Arrays.copyOf(bytes, (int) capacity);
+        }
+        // Grow the start offsets when full
+        if (count + 1 == starts.length) {
+            starts = Arrays.copyOf(starts, starts.length * 2);
+        }
+
+        for (int i = 0; i < length; i++) {
+            bytes[byteCount + i] = source.get(from + i);
+        }
+        byteCount += length;
+        int id = count++;
+        starts[count] = byteCount;
+        slots[slot] = id + 1;
+
+        // Keep the hash table at most 3/4 full
+        if (count * 4L > slots.length * 3L) {
+            rehash(slots.length * 2);
+        }
+        return id;
+    }
+
+    /*
+    Move every name into a larger hash table
+
+    @param size New table size (a power of two)
+     */
+    private void rehash(int size) {
+        slots = new int[size];
+        int mask = size - 1;
+        ByteBuffer all = ByteBuffer.wrap(bytes);
+        for (int id = 0; id < count; id++) {
+            int slot = hash(all, starts[id], starts[id + 1] - starts[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    /*
+    Release unused capacity once no more names will be added
+     */
+    void trim() {
+        bytes = Arrays.copyOf(bytes, byteCount);
+        starts = Arrays.copyOf(starts, count + 1);
+    }
+
+    /*
+    Hash table size for a number of names
+
+    @param names Number of names
+
+    @return Smallest power of two that keeps the table at most 3/4 full
+     */
+    static int tableSize(int names) {
+        int size = 8;
+        while (size < 1 << 30 && size * 3L < names * 4L) {
+            size <<= 1;
+        }
+        return size;
+    }
+}
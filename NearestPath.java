@@ -0,0 +1,68 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//NearestPath is the answer to a nearest-exit query: the winning entrance, exit and the path between them
+
+package maze;
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+Result of Maze.findNearestPath
+
+Holds the source and target that are closest to each other (fewest
+connections) among all the pairs asked about, and the path from one to the
+other. Immutable.
+ */
+public final class NearestPath {
+
+    private final String source;       // Name of the source the path starts at
+
+    private final String target;       // Name of the target the path ends at
+
+    private final List<String> path;   // Node names from source to target (read-only)
+
+    /*
+    Constructor
+
+    @param source Name of the winning source
+
+    @param target Name of the winning target
+
+    @param path Node names from source to target
+     */
+    NearestPath(String source, String target, List<String> path) {
+        this.source = source;
+        this.target = target;
+        this.path = Collections.unmodifiableList(path);
+    }
+
+    public String getSource() {
+        // Return the name of the source the path starts at
+        return source;
+    }
+
+    public String getTarget() {
+        // Return the name of the target the path ends at
+        return target;
+    }
+
+    public List<String> getPath() {
+        // Return the node names from source to target
+        return path;
+    }
+
+    public int getLength() {
+        // Return the number of connections on the path
+        return path.size() - 1;
+    }
+
+    @Override
+    public String toString() {
+        return source + " -> " + target + " " + path;
+    }
+}
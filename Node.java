@@ -11,9 +11,14 @@ Data structures and algorithms
 Node class represents a single node in the maze
 
 Each node has a name, position, and connections to other nodes
+
+Nodes are a read-only view of the Graph (see Maze.getNodes()). Searches keep
+their state in a SearchContext, so the visited and parent fields below are
+no longer used and will be removed.
  */
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 
@@ -30,7 +35,7 @@ public class Node {
     
     private List<String> connections; // List of connected node names
     
-    // Pathfinding properties
+    // Pathfinding properties (unused, searches keep their state in a SearchContext)
     private boolean visited;       // Flag to track if node has been visited during search
     
     private Node parent;           // Parent node in the path (for backtracking)
@@ -103,16 +108,24 @@ public class Node {
     
     public List<String> getConnections() {
         
-        // Return the list of all connected node names
-        return connections;
+        // Return the list of all connected node names (read-only)
+        return Collections.unmodifiableList(connections);
     }
     
+    /**
+     * @deprecated Search state lives in SearchContext; this field is not read by any search
+     */
+    @Deprecated
     public boolean isVisited() {
         
         // Return true if this node has been visited during pathfinding, false otherwise
         return visited;
     }
     
+    /**
+     * @deprecated Search state lives in SearchContext; this field is not read by any search
+     */
+    @Deprecated
     public Node getParent() {
         
         // Return the parent node (used for backtracking the path)
@@ -120,12 +133,20 @@ public class Node {
     }
     
     // Setter methods
+    /**
+     * @deprecated Search state lives in SearchContext; this field is not read by any search
+     */
+    @Deprecated
     public void setVisited(boolean visited) {
         
         // Set the visited status of this node (true = visited, false = not visited)
         this.visited = visited;
     }
     
+    /**
+     * @deprecated Search state lives in SearchContext; this field is not read by any search
+     */
+    @Deprecated
     public void setParent(Node parent) {
         
         // Set the parent node (used to remember the path taken to reach this node)
@@ -135,6 +156,10 @@ public class Node {
     
     //Reset the node for a new search
     
+    /**
+     * @deprecated Search state lives in SearchContext; this field is not read by any search
+     */
+    @Deprecated
     public void reset() {
         
         // Reset the visited flag to false so the node can be explored again
@@ -0,0 +1,89 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//OffHeapArena hands out native memory outside the Java heap and gives it up all at once
+
+package maze;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Owner of off-heap buffers
+
+Every buffer is a direct ByteBuffer in native byte order. Direct memory is
+not part of the Java heap, so the garbage collector neither copies nor scans
+it, however big the maze is.
+
+close() gives up the arena's hold on its buffers; it does not free them on
+the spot. The memory of a buffer is returned once nothing refers to it any
+more, when the garbage collector finds it. A Graph, path tree or listener
+handed out earlier may still point at the buffers, and reading freed native
+memory would crash the JVM, so an early free is never safe here.
+
+The Foreign Function & Memory API (Arena, MemorySegment) would be the modern
+way to do this, but it is only final from Java 22 and nothing else in the
+sources needs a JDK that new, so direct buffers are used. They are limited
+to 2 GB each. The size of direct memory is limited by
+-XX:MaxDirectMemorySize (by default the maximum heap size).
+ */
+public final class OffHeapArena implements AutoCloseable {
+
+    private final List<ByteBuffer> buffers = new ArrayList<>(); // Everything allocated so far
+
+    private long allocatedBytes;       // Total size of the buffers
+
+    private boolean closed;            // Set by close()
+
+    /*
+    Allocate a zero-filled off-heap buffer
+
+    @param bytes Size in bytes (at most Integer.MAX_VALUE)
+
+    @return Direct buffer in native byte order
+     */
+    public synchronized ByteBuffer allocate(long bytes) {
+        if (closed) {
+            throw new IllegalStateException("Arena is closed");
+        }
+        if (bytes < 0 || bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Off-heap buffer of " + bytes + " bytes is larger than 2 GB");
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        buffers.add(buffer);
+        allocatedBytes += bytes;
+        return buffer;
+    }
+
+    public synchronized long getAllocatedBytes() {
+        // Return the total size of the buffers handed out (0 after close)
+        return allocatedBytes;
+    }
+
+    public synchronized boolean isClosed() {
+        // Return true once close() has been called
+        return closed;
+    }
+
+    /*
+    Let go of every buffer of the arena
+
+    No more buffers can be allocated. Each buffer's memory is returned by the
+    garbage collector once the last Graph reading it is unreachable, so
+    objects that still hold the buffers keep working.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffers.clear();
+        allocatedBytes = 0;
+    }
+}
@@ -27,7 +27,9 @@ public class Panel extends JPanel {
     // Maze and visualization components
     private Maze maze;                           // The maze object
     
-    private List<List<String>> animationSteps;   // Steps for animation
+    private SearchTrace animationTrace;          // Recorded search for animation
+    
+    private SearchTrace.Cursor animationCursor;  // Builds animation frames on demand
     
     private int currentAnimationStep;            // Current step in animation
     
@@ -210,7 +212,7 @@ public class Panel extends JPanel {
                 
                 // Move to next animation step
                 // Check if there are more steps to show in the animation
-                if (currentAnimationStep < animationSteps.size() - 1) {
+                if (currentAnimationStep < animationTrace.getStepCount() - 1) {
                     
                     // Increment the current step counter
                     currentAnimationStep++;
@@ -584,11 +586,14 @@ public class Panel extends JPanel {
             animateButton.setEnabled(true);
             
             // Prepare animation data
-            // Get all the animation steps from the maze
-            animationSteps = maze.getAnimatedPath();
+            // Record the search once; frames are rebuilt from it while animating
+            animationTrace = maze.traceSearch();
+            
+            // Create a cursor that builds one frame at a time
+            animationCursor = animationTrace.cursor();
             
             // Set current step to the last step (final result)
-            currentAnimationStep = animationSteps.size() - 1; // Show final result
+            currentAnimationStep = animationTrace.getStepCount() - 1; // Show final result
             
         } else {
             
@@ -612,7 +617,7 @@ public class Panel extends JPanel {
     private void startAnimation() {
         
         // Check if animation steps exist and are not empty
-        if (animationSteps != null && !animationSteps.isEmpty()) {
+        if (animationTrace != null && animationTrace.getStepCount() > 0) {
             
             // Set the animating flag to true
             isAnimating = true;
@@ -645,7 +650,7 @@ public class Panel extends JPanel {
         animateButton.setText("Animate Path");
         
         // Set to show the final result (last step)
-        currentAnimationStep = animationSteps.size() - 1; // Show final result
+        currentAnimationStep = animationTrace.getStepCount() - 1; // Show final result
         
         // Trigger a repaint to show the final path
         repaint();
@@ -744,7 +749,7 @@ public class Panel extends JPanel {
         
         // 4. Draw animation progress if animating
         // Check if animation is currently running
-        if (isAnimating && animationSteps != null) {
+        if (isAnimating && animationTrace != null) {
             // Call method to draw the animation progress indicator
             drawAnimationProgress(g2d);
         }
@@ -757,7 +762,7 @@ public class Panel extends JPanel {
      */
     private void drawAnimationProgress(Graphics2D g2d) {
         // Check if animation steps exist
-        if (animationSteps == null || animationSteps.isEmpty()) return;
+        if (animationTrace == null || animationTrace.getStepCount() == 0) return;
         
         // Position the animation progress below the maze area
         // Adjust ANIMATION_Y_POSITION to move the indicator up or down
@@ -773,7 +778,7 @@ public class Panel extends JPanel {
         // Format the progress text showing current step and total steps
         String progressText = String.format("Animation Step: %d / %d", 
                                           currentAnimationStep + 1, 
-                                          animationSteps.size());
+                                          animationTrace.getStepCount());
         // Draw the progress text
         g2d.drawString(progressText, 10, ANIMATION_Y_POSITION);
         
@@ -802,7 +807,7 @@ public class Panel extends JPanel {
         g2d.setColor(Color.BLUE);
         
         // Calculate the width of the progress based on current step
-        int progressWidth = (int) ((double) (currentAnimationStep + 1) / animationSteps.size() * barWidth);
+        int progressWidth = (int) ((double) (currentAnimationStep + 1) / animationTrace.getStepCount() * barWidth);
         
         // Fill the progress portion of the bar
         g2d.fillRect(barX, barY, progressWidth, barHeight);
@@ -815,6 +820,19 @@ public class Panel extends JPanel {
         g2d.drawRect(barX, barY, barWidth, barHeight);
     }
     
+    /*
+    Get the frame of the current animation step
+    
+    @return Node names from START to the node expanded at the current step
+     */
+    private List<String> currentAnimationFrame() {
+        // Move the cursor to the current step (the frame is only rebuilt when the step changes)
+        animationCursor.seek(currentAnimationStep);
+        
+        // Return the cached frame for this step
+        return animationCursor.getPath();
+    }
+    
     /*
     Draw connections between nodes
     
@@ -862,9 +880,9 @@ public class Panel extends JPanel {
         
         // Determine which path to draw
         // Check if animation is running and steps exist
-        if (isAnimating && animationSteps != null && currentAnimationStep < animationSteps.size()) {
+        if (isAnimating && animationTrace != null && currentAnimationStep < animationTrace.getStepCount()) {
             // Get the path for the current animation step
-            currentPath = animationSteps.get(currentAnimationStep);
+            currentPath = currentAnimationFrame();
         } else if (!isAnimating && maze.getFinalPath() != null && !maze.getFinalPath().isEmpty()) {
             // Get the final path if not animating
             currentPath = maze.getFinalPath();
@@ -916,10 +934,10 @@ public class Panel extends JPanel {
         List<String> currentPath = null;
         
         // Check if animation is running and steps exist
-        if (isAnimating && animationSteps != null && currentAnimationStep < animationSteps.size()) {
+        if (isAnimating && animationTrace != null && currentAnimationStep < animationTrace.getStepCount()) {
             
             // Get the path for the current animation step
-            currentPath = animationSteps.get(currentAnimationStep);
+            currentPath = currentAnimationFrame();
         } else if (!isAnimating && maze.getFinalPath() != null && !maze.getFinalPath().isEmpty()) {
             
             // Get the final path if not animating
@@ -938,11 +956,11 @@ public class Panel extends JPanel {
             // Declare a variable to hold the node's color
             Color nodeColor;
             // Check if this is the START node
-            if (node.getName().equals("START")) {
+            if (node.getName().equals(Maze.START)) {
                 
                 // Set color to green for START node
                 nodeColor = Color.GREEN;
-            } else if (node.getName().equals("EXIT")) {
+            } else if (node.getName().equals(Maze.EXIT)) {
                 
                 // Set color to red for EXIT node
                 nodeColor = Color.RED;
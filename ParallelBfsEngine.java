@@ -0,0 +1,246 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//ParallelBfsEngine expands each BFS level on the fork/join pool
+
+package maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+Level-synchronous parallel breadth-first search
+
+The nodes of one level (the frontier) are split into chunks that are
+expanded in parallel on the common ForkJoinPool. A thread claims an unvisited
+neighbour by compare-and-set on its visited stamp, so every node gets exactly
+one parent. Each chunk collects the nodes it claimed in its own buffer, and
+the buffers are joined into the next frontier once the level is done.
+
+Levels are processed in order, so the path has the same length as the one
+sequential BFS finds. Only worth it on very large mazes; Maze switches to
+this engine automatically above PARALLEL_THRESHOLD nodes.
+ */
+public class ParallelBfsEngine implements SearchEngine {
+
+    // Graphs with at least this many nodes are searched in parallel by default
+    public static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    // Frontier nodes per chunk; smaller levels are expanded on the calling thread
+    private static final int CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool pool;   // Pool that runs the chunks
+
+    /*
+    Constructor uses the common fork/join pool
+     */
+    public ParallelBfsEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /*
+    Constructor
+
+    @param pool Pool that runs the chunks
+     */
+    public ParallelBfsEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public boolean search(Graph graph, SearchContext context, int source, int target) {
+        // Start a new query; the atomic stamps share the context's epoch
+        context.begin(graph.size());
+        context.beginShared(graph.size());
+
+        AtomicIntegerArray visited = context.getSharedVisited();
+        int[] parent = context.getParent();
+        int epoch = context.getEpoch();
+        SearchListener listener = context.getListener();
+
+        // The current frontier lives in the context queue (no wrapping needed,
+        // each node is claimed at most once)
+        int[] frontier = context.getQueue();
+        int frontierSize = 1;
+        frontier[0] = source;
+        visited.set(source, epoch);
+        parent[source] = -1;
+
+        // One buffer per chunk, kept across levels
+        int[][] buffers = new int[0][];
+        int[] counts = new int[0];
+        long[] edgeCounts = new long[0];
+        int expanded = 0;
+        long edges = 0;
+
+        while (frontierSize > 0 && visited.get(target) != epoch) {
+            expanded += frontierSize;
+
+            int chunks = (frontierSize + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            if (buffers.length < chunks) {
+                buffers = Arrays.copyOf(buffers, chunks);
+                counts = new int[chunks];
+                edgeCounts = new long[chunks];
+            }
+
+            if (chunks == 1 || listener != null) {
+                // Small level, or a listener that expects one thread: expand here
+                counts[0] = 0;
+                buffers[0] = expand(graph, frontier, 0, frontierSize, visited, parent, epoch,
+                        buffers, counts, edgeCounts, 0, listener);
+                chunks = 1;
+            } else {
+                // Expand every chunk of the level on the pool and wait for all of them
+                pool.invoke(new LevelTask(graph, frontier, frontierSize, visited, parent, epoch,
+                        buffers, counts, edgeCounts, 0, chunks));
+            }
+
+            // Join the per-chunk buffers into the next frontier
+            int nextSize = 0;
+            for (int c = 0; c < chunks; c++) {
+                System.arraycopy(buffers[c], 0, frontier, nextSize, counts[c]);
+                nextSize += counts[c];
+                edges += edgeCounts[c];
+            }
+            frontierSize = nextSize;
+        }
+
+        context.setExpandedCount(expanded);
+        context.setEdgesInspected(edges);
+        if (visited.get(target) != epoch) {
+            return false;
+        }
+        if (listener != null) {
+            listener.goalFound(target);
+        }
+        context.tracePath(target);
+        return true;
+    }
+
+    /*
+    Expand one chunk of the frontier
+
+    @param graph Graph being searched
+
+    @param frontier Current level
+
+    @param from First frontier index of the chunk
+
+    @param to Index just past the chunk
+
+    @param visited Shared visited stamps
+
+    @param parent Parent array (only the thread that claims a node writes it)
+
+    @param epoch Stamp of this query
+
+    @param buffers Per-chunk buffers of the next level
+
+    @param counts Number of nodes in each buffer
+
+    @param edgeCounts Number of edges each chunk checked
+
+    @param chunk Index of this chunk
+
+    @param listener Trace listener, or null
+
+    @return The chunk's buffer (it may have been grown)
+     */
+    private static int[] expand(Graph graph, int[] frontier, int from, int to, AtomicIntegerArray visited,
+            int[] parent, int epoch, int[][] buffers, int[] counts, long[] edgeCounts, int chunk,
+            SearchListener listener) {
+        int[] buffer = buffers[chunk];
+        if (buffer == null) {
+            buffer = new int[CHUNK_SIZE * 2];
+        }
+        int count = 0;
+        long edges = 0;
+
+        for (int i = from; i < to; i++) {
+            int current = frontier[i];
+            if (listener != null) {
+                listener.nodeExpanded(current);
+            }
+            int start = graph.edgeStart(current);
+            int end = graph.edgeEnd(current);
+            edges += end - start;
+            for (int e = start; e < end; e++) {
+                int next = graph.target(e);
+                int stamp = visited.get(next);
+                // Only the thread whose compare-and-set succeeds becomes the parent
+                if (stamp != epoch && visited.compareAndSet(next, stamp, epoch)) {
+                    parent[next] = current;
+                    if (count == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, count * 2);
+                    }
+                    buffer[count++] = next;
+                    if (listener != null) {
+                        listener.edgeRelaxed(current, next);
+                    }
+                }
+            }
+        }
+
+        buffers[chunk] = buffer;
+        counts[chunk] = count;
+        edgeCounts[chunk] = edges;
+        return buffer;
+    }
+
+    /*
+    Fork/join task that expands a range of chunks of one level
+     */
+    private static class LevelTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Graph graph; // Tasks are never serialised
+        private final int[] frontier;
+        private final int frontierSize;
+        private final AtomicIntegerArray visited;
+        private final int[] parent;
+        private final int epoch;
+        private final int[][] buffers;
+        private final int[] counts;
+        private final long[] edgeCounts;
+        private final int firstChunk;   // First chunk of this task
+        private final int endChunk;     // Chunk just past this task
+
+        LevelTask(Graph graph, int[] frontier, int frontierSize, AtomicIntegerArray visited, int[] parent,
+                int epoch, int[][] buffers, int[] counts, long[] edgeCounts, int firstChunk, int endChunk) {
+            this.graph = graph;
+            this.frontier = frontier;
+            this.frontierSize = frontierSize;
+            this.visited = visited;
+            this.parent = parent;
+            this.epoch = epoch;
+            this.buffers = buffers;
+            this.counts = counts;
+            this.edgeCounts = edgeCounts;
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - firstChunk == 1) {
+                // Leaf: expand one chunk into its own buffer
+                int from = firstChunk * CHUNK_SIZE;
+                int to = Math.min(from + CHUNK_SIZE, frontierSize);
+                expand(graph, frontier, from, to, visited, parent, epoch, buffers, counts, edgeCounts, firstChunk, null);
+                return;
+            }
+            // Split the chunk range in half
+            int middle = (firstChunk + endChunk) >>> 1;
+            invokeAll(new LevelTask(graph, frontier, frontierSize, visited, parent, epoch, buffers, counts,
+                            edgeCounts, firstChunk, middle),
+                    new LevelTask(graph, frontier, frontierSize, visited, parent, epoch, buffers, counts,
+                            edgeCounts, middle, endChunk));
+        }
+    }
+}
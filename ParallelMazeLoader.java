@@ -0,0 +1,569 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//ParallelMazeLoader parses pieces of a large maze file on several cores at once
+
+package maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+Parallel loader for large maze text files
+
+1. The header line is parsed first. The rest of the file is cut into byte
+   ranges that each end at a newline, and every range is memory-mapped and
+   parsed by its own MazeParser on the fork/join pool.
+2. The row names of all pieces go into one hash table in parallel. A name
+   with rows in several pieces keeps its first row (compare-and-set keeps the
+   earliest), exactly like a repeated row in one file.
+3. Every first row gets its global id (pieces in file order, rows in order)
+   and the name bytes, coordinates and hash table of the final graph are
+   filled in parallel.
+4. Each piece resolves its connection names against the final table in
+   parallel and copies its connections into the global edge list.
+5. GraphBuilder.pack adds the reverse direction of every connection and
+   builds the CSR arrays.
+
+The result is the same graph, with the same ids and neighbour order, as
+loading the file with MazeParser on one thread. Step 5 is sequential because
+the neighbour order has to follow the file.
+ */
+public final class ParallelMazeLoader {
+
+    // Files at least this big are loaded in parallel by Maze.loadMaze (when there is more than one core)
+    public static final long PARALLEL_THRESHOLD = 32L << 20;
+
+    // Smallest and largest piece of the file parsed by one task
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    private static final int MAX_CHUNK_SIZE = 256 << 20;
+
+    // Pieces per core, so a slow piece does not hold up the others
+    private static final int CHUNKS_PER_CORE = 4;
+
+    private ParallelMazeLoader() {
+        // Static helpers only
+    }
+
+    /*
+    Load a maze file in parallel on the common fork/join pool
+
+    @param file Maze file
+
+    @param header Parser that receives the header line (its getHeader... methods give the values)
+
+    @return The graph
+     */
+    public static Graph load(Path file, MazeParser header) throws IOException {
+        long pieces = (long) ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_CORE;
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, Files.size(file) / pieces + 1));
+        return load(file, header, ForkJoinPool.commonPool(), (int) chunkSize);
+    }
+
+    /*
+    Load a maze file in parallel
+
+    @param file Maze file
+
+    @param header Parser that receives the header line
+
+    @param pool Pool that runs the tasks
+
+    @param chunkSize Bytes per piece (each piece is extended to the end of its last line)
+
+    @return The graph
+     */
+    static Graph load(Path file, MazeParser header, ForkJoinPool pool, int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            // Step 1: header, then the pieces
+            long bodyStart = parseHeader(channel, header);
+            long[] bounds = split(channel, bodyStart, size, chunkSize);
+            MazeParser[] parsers = parseChunks(channel, header, bounds, size - bodyStart, pool);
+            return merge(parsers, pool);
+        }
+    }
+
+    /*
+    Parse the header line
+
+    @param channel Open file
+
+    @param header Parser that receives the header
+
+    @return Offset of the first byte after the header line
+     */
+    private static long parseHeader(FileChannel channel, MazeParser header) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        // The header is the first line that is not blank
+        while (position < size && !header.isHeaderRead()) {
+            int length = (int) Math.min(size - position, 1 << 16);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int end = 0;
+            while (end < length && buffer.get(end) != '\n') {
+                end++;
+            }
+            if (end == length && position + length < size) {
+                throw new IOException("Header line is too long");
+            }
+            header.parseLines(buffer, 0, Math.min(end + 1, length));
+            position += Math.min(end + 1, length);
+        }
+        if (!header.isHeaderRead()) {
+            throw new IOException("Empty maze file");
+        }
+        return position;
+    }
+
+    /*
+    Cut the body of the file into pieces that end at newlines
+
+    @param channel Open file
+
+    @param start Offset of the first body byte
+
+    @param size File size
+
+    @param chunkSize Bytes per piece before moving the cut to a newline
+
+    @return Piece boundaries: piece i is bounds[i] .. bounds[i+1]-1
+     */
+    private static long[] split(FileChannel channel, long start, long size, int chunkSize) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(start);
+        long position = start;
+        while (size - position > chunkSize) {
+            // Move the cut forward to just after the next newline
+            long cut = position + chunkSize;
+            while (cut < size) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, cut,
+                        Math.min(1 << 16, size - cut));
+                int i = 0;
+                while (i < window.limit() && window.get(i) != '\n') {
+                    i++;
+                }
+                cut += i;
+                if (i < window.limit()) {
+                    cut++;
+                    break;
+                }
+            }
+            if (cut >= size) {
+                break;
+            }
+            bounds.add(cut);
+            position = cut;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /*
+    Parse every piece on the pool
+
+    @param channel Open file
+
+    @param header Parser holding the header (for presizing)
+
+    @param bounds Piece boundaries
+
+    @param bodySize Bytes after the header
+
+    @param pool Pool that runs the tasks
+
+    @return One parser per piece
+     */
+    private static MazeParser[] parseChunks(final FileChannel channel, MazeParser header, final long[] bounds,
+            long bodySize, ForkJoinPool pool) throws IOException {
+        final int chunks = bounds.length - 1;
+        final MazeParser[] parsers = new MazeParser[chunks];
+        final long nodes = Math.max(header.getHeaderNodes(), 0);
+
+        run(pool, chunks, new ChunkTask() {
+            @Override
+            public void run(int c) throws IOException {
+                long start = bounds[c];
+                long length = bounds[c + 1] - start;
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("Line longer than 2 GB near byte " + start);
+                }
+                // Presize by the share of the file this piece holds
+                int expected = (int) Math.min(Integer.MAX_VALUE, bodySize == 0 ? 0 : nodes * length / bodySize + 16);
+                MazeParser parser = MazeParser.forChunk(expected, length);
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                try {
+                    parser.parseLines(buffer, 0, (int) length);
+                } catch (IOException e) {
+                    throw new IOException("In the part starting at byte " + start + ": " + e.getMessage(), e);
+                }
+                parsers[c] = parser;
+            }
+        });
+        return parsers;
+    }
+
+    /*
+    Merge the pieces into one graph (steps 2 to 5)
+
+    @param parsers One parser per piece, in file order
+
+    @param pool Pool that runs the tasks
+
+    @return The graph
+     */
+    private static Graph merge(final MazeParser[] parsers, ForkJoinPool pool) throws IOException {
+        final int chunks = parsers.length;
+
+        // Candidate rows: piece c's rows are rowBase[c] .. rowBase[c+1]-1
+        final int[] rowBase = new int[chunks + 1];
+        for (int c = 0; c < chunks; c++) {
+            long next = (long) rowBase[c] + parsers[c].getRowCount();
+            if (next > Integer.MAX_VALUE - 8) {
+                throw new IOException("Too many nodes");
+            }
+            rowBase[c + 1] = (int) next;
+        }
+        int candidates = rowBase[chunks];
+
+        // Step 2: one hash table of row names, keeping the earliest row of each name
+        final int slotCount = NameTable.tableSize(candidates);
+        final AtomicIntegerArray table = new AtomicIntegerArray(slotCount);
+        final int mask = slotCount - 1;
+        final int[][] winnerOf = new int[chunks][];
+        run(pool, chunks, new ChunkTask() {
+            @Override
+            public void run(int c) {
+                MazeParser parser = parsers[c];
+                NameTable names = parser.getNames();
+                ByteBuffer bytes = ByteBuffer.wrap(names.bytes());
+                int[] nameOfRow = parser.getNameOfRow();
+                int rows = parser.getRowCount();
+                // Remember each row's slot; the slot of a name never moves, only its candidate can drop
+                int[] slotOfRow = new int[rows];
+                for (int r = 0; r < rows; r++) {
+                    int name = nameOfRow[r];
+                    slotOfRow[r] = insert(table, mask, parsers, rowBase, rowBase[c] + r,
+                            NameTable.hash(bytes, names.start(name), names.length(name)));
+                }
+                winnerOf[c] = slotOfRow;
+            }
+        });
+        // Which candidate each row lost to (itself if it is the first row of its name)
+        run(pool, chunks, new ChunkTask() {
+            @Override
+            public void run(int c) {
+                int[] winners = winnerOf[c];
+                for (int r = 0; r < winners.length; r++) {
+                    winners[r] = table.get(winners[r]) - 1;
+                }
+            }
+        });
+
+        // Step 3: global ids of the first rows, and where their name bytes go
+        final int[] idBase = new int[chunks + 1];
+        final long[] byteBase = new long[chunks + 1];
+        for (int c = 0; c < chunks; c++) {
+            NameTable names = parsers[c].getNames();
+            int[] nameOfRow = parsers[c].getNameOfRow();
+            int firsts = 0;
+            long bytes = 0;
+            for (int r = 0; r < winnerOf[c].length; r++) {
+                if (winnerOf[c][r] == rowBase[c] + r) {
+                    firsts++;
+                    bytes += names.length(nameOfRow[r]);
+                }
+            }
+            idBase[c + 1] = idBase[c] + firsts;
+            byteBase[c + 1] = byteBase[c] + bytes;
+        }
+        final int n = idBase[chunks];
+        if (byteBase[chunks] > Integer.MAX_VALUE - 8) {
+            throw new IOException("Node names take more than 2 GB");
+        }
+
+        final int[][] idOf = new int[chunks][];     // Global id of each first row (-1 for repeats)
+        final byte[] nameBytes = new byte[(int) byteBase[chunks]];
+        final int[] starts = new int[n + 1];
+        final int[] xs = new int[n];
+        final int[] ys = new int[n];
+        run(pool, chunks, new ChunkTask() {
+            @Override
+            public void run(int c) {
+                MazeParser parser = parsers[c];
+                NameTable names = parser.getNames();
+                int[] nameOfRow = parser.getNameOfRow();
+                int[] ids = new int[winnerOf[c].length];
+                int id = idBase[c];
+                int position = (int) byteBase[c];
+                for (int r = 0; r < ids.length; r++) {
+                    if (winnerOf[c][r] != rowBase[c] + r) {
+                        ids[r] = -1;
+                        continue;
+                    }
+                    int name = nameOfRow[r];
+                    int length = names.length(name);
+                    System.arraycopy(names.bytes(), names.start(name), nameBytes, position, length);
+                    starts[id] = position;
+                    xs[id] = parser.getXs()[r];
+                    ys[id] = parser.getYs()[r];
+                    ids[r] = id++;
+                    position += length;
+                }
+                idOf[c] = ids;
+            }
+        });
+        starts[n] = nameBytes.length;
+
+        // A repeated row moves its node; later rows win, so apply them in file order
+        for (int c = 0; c < chunks; c++) {
+            for (int r = 0; r < winnerOf[c].length; r++) {
+                int winner = winnerOf[c][r];
+                if (winner != rowBase[c] + r) {
+                    int wc = chunkOf(rowBase, winner);
+                    int id = idOf[wc][winner - rowBase[wc]];
+                    xs[id] = parsers[c].getXs()[r];
+                    ys[id] = parsers[c].getYs()[r];
+                }
+            }
+        }
+
+        // The row-name table becomes the graph's name table: candidates turn into ids
+        final int[] slots = new int[slotCount];
+        final int slotChunks = Math.max(1, Math.min(chunks * 4, slots.length >>> 16));
+        run(pool, slotChunks, new ChunkTask() {
+            @Override
+            public void run(int part) {
+                int from = (int) ((long) slots.length * part / slotChunks);
+                int to = (int) ((long) slots.length * (part + 1) / slotChunks);
+                for (int s = from; s < to; s++) {
+                    int candidate = table.get(s) - 1;
+                    if (candidate >= 0) {
+                        int c = chunkOf(rowBase, candidate);
+                        slots[s] = idOf[c][candidate - rowBase[c]] + 1;
+                    }
+                }
+            }
+        });
+        final NameTable graphNames = new NameTable(nameBytes, starts, n, slots);
+
+        // Step 4: resolve connection names and join the edge lists in file order
+        final int[] edgeBase = new int[chunks + 1];
+        for (int c = 0; c < chunks; c++) {
+            long next = (long) edgeBase[c] + parsers[c].getEdgeCount();
+            if (next > Integer.MAX_VALUE - 8) {
+                throw new IOException("Too many connections");
+            }
+            edgeBase[c + 1] = (int) next;
+        }
+        final int[] edgeFrom = new int[edgeBase[chunks]];
+        final int[] edgeTo = new int[edgeBase[chunks]];
+        // Weights only exist if some piece had a weight column
+        boolean weighted = false;
+        for (MazeParser parser : parsers) {
+            weighted |= parser.getEdgeWeight() != null;
+        }
+        final double[] edgeWeight = weighted ? new double[edgeFrom.length] : null;
+        run(pool, chunks, new ChunkTask() {
+            @Override
+            public void run(int c) {
+                MazeParser parser = parsers[c];
+                NameTable names = parser.getNames();
+                ByteBuffer bytes = ByteBuffer.wrap(names.bytes());
+                // Global id of every name the piece mentions (-1 if it has no row anywhere)
+                int[] global = new int[names.size()];
+                Arrays.fill(global, -2);
+                int[] nameOfRow = parser.getNameOfRow();
+                int[] winners = winnerOf[c];
+                for (int r = 0; r < winners.length; r++) {
+                    // Names with a row in this piece already know their node
+                    int wc = chunkOf(rowBase, winners[r]);
+                    global[nameOfRow[r]] = idOf[wc][winners[r] - rowBase[wc]];
+                }
+                for (int name = 0; name < global.length; name++) {
+                    if (global[name] == -2) {
+                        global[name] = graphNames.find(bytes, names.start(name), names.length(name));
+                    }
+                }
+                int[] from = parser.getEdgeFrom();
+                int[] to = parser.getEdgeTo();
+                int base = edgeBase[c];
+                int count = parser.getEdgeCount();
+                for (int i = 0; i < count; i++) {
+                    edgeFrom[base + i] = global[nameOfRow[from[i]]];
+                    edgeTo[base + i] = global[to[i]];
+                }
+                if (edgeWeight != null) {
+                    double[] weights = parser.getEdgeWeight();
+                    if (weights == null) {
+                        Arrays.fill(edgeWeight, base, base + count, Double.NaN);
+                    } else {
+                        System.arraycopy(weights, 0, edgeWeight, base, count);
+                    }
+                }
+            }
+        });
+
+        // Step 5: reverse edges and CSR arrays
+        return GraphBuilder.pack(graphNames, xs, ys, n, edgeFrom, edgeTo, edgeWeight, edgeFrom.length);
+    }
+
+    /*
+    Insert a candidate row into the shared table, keeping the earliest row per name
+
+    @param table Shared hash table of candidate+1
+
+    @param mask Table size - 1
+
+    @param parsers Piece parsers
+
+    @param rowBase First candidate of each piece
+
+    @param candidate Candidate being inserted
+
+    @param hash Hash of its name
+
+    @return The slot that holds the name
+     */
+    private static int insert(AtomicIntegerArray table, int mask, MazeParser[] parsers, int[] rowBase,
+            int candidate, int hash) {
+        int slot = hash & mask;
+        while (true) {
+            int current = table.get(slot);
+            if (current == 0) {
+                if (table.compareAndSet(slot, 0, candidate + 1)) {
+                    return slot;
+                }
+                // Someone else took the slot: look at it again
+            } else if (sameName(parsers, rowBase, current - 1, candidate)) {
+                if (current - 1 < candidate || table.compareAndSet(slot, current, candidate + 1)) {
+                    return slot;
+                }
+                // Lost a race with another row of the same name: compare again
+            } else {
+                slot = (slot + 1) & mask;
+            }
+        }
+    }
+
+    /*
+    Check whether two candidate rows have the same name
+
+    @return true if the names are equal
+     */
+    private static boolean sameName(MazeParser[] parsers, int[] rowBase, int a, int b) {
+        int ca = chunkOf(rowBase, a);
+        int cb = chunkOf(rowBase, b);
+        NameTable namesA = parsers[ca].getNames();
+        NameTable namesB = parsers[cb].getNames();
+        int nameA = parsers[ca].getNameOfRow()[a - rowBase[ca]];
+        int nameB = parsers[cb].getNameOfRow()[b - rowBase[cb]];
+        return equal(namesA.bytes(), namesA.start(nameA), namesA.length(nameA),
+                ByteBuffer.wrap(namesB.bytes()), namesB.start(nameB), namesB.length(nameB));
+    }
+
+    private static boolean equal(byte[] a, int aStart, int aLength, ByteBuffer b, int bStart, int bLength) {
+        // Compare two byte ranges
+        if (aLength != bLength) {
+            return false;
+        }
+        for (int i = 0; i < aLength; i++) {
+            if (a[aStart + i] != b.get(bStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+    Find the piece a candidate row belongs to
+
+    @param rowBase First candidate of each piece (plus the total at the end)
+
+    @param candidate Candidate row
+
+    @return Piece index
+     */
+    private static int chunkOf(int[] rowBase, int candidate) {
+        // Last piece whose first candidate is <= candidate (skipping empty pieces)
+        int low = 0;
+        int high = rowBase.length - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (rowBase[middle] <= candidate) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    // One unit of parallel work
+    private interface ChunkTask {
+        void run(int index) throws IOException;
+    }
+
+    /*
+    Run a task for every index on the pool and wait for all of them
+
+    @param pool Pool that runs the tasks
+
+    @param count Number of indices
+
+    @param task Work for one index
+     */
+    private static void run(ForkJoinPool pool, int count, final ChunkTask task) throws IOException {
+        List<Callable<Void>> calls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            calls.add(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    task.run(index);
+                    return null;
+                }
+            });
+        }
+        for (Future<Void> result : pool.invokeAll(calls)) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//PrunedGraph removes dead-end branches that can never be on a path between kept nodes
+
+package maze;
+
+import java.util.Arrays;
+
+/*
+Dead-end pruning of a Graph
+
+A node with only one connection (other than a kept node such as START or
+EXIT) is the end of a dead end: a shortest path between two other nodes
+never passes through it. Removing it can turn its neighbour into a dead
+end too, so whole branches are peeled away one node at a time, like
+leaves off a tree:
+
+    degree(v) <= 1 and v not kept  ->  remove v, lower degree of its neighbour
+
+Each node is removed at most once and each connection looked at at most
+twice, so the pass is O(nodes + connections). What is left is the core:
+the kept nodes, every cycle, and the paths between them. A search between
+kept nodes on the core finds a path as short as on the full graph.
+
+The core is a new Graph with its own dense ids (in the order of the
+original ids), the same names, coordinates and weights. A PrunedGraph is
+immutable and can be shared between threads.
+ */
+public final class PrunedGraph {
+
+    private final Graph original;          // Graph that was pruned
+
+    private final ArrayGraph core;         // Nodes that survived, with the connections between them
+
+    private final int[] coreOf;            // Core id of each original node (-1 = removed)
+
+    private final int[] originalOf;        // Original id of each core node
+
+    private PrunedGraph(Graph original, ArrayGraph core, int[] coreOf, int[] originalOf) {
+        this.original = original;
+        this.core = core;
+        this.coreOf = coreOf;
+        this.originalOf = originalOf;
+    }
+
+    /*
+    Prune a graph
+
+    @param graph Graph to prune
+
+    @param keep Ids of nodes that must never be removed (ids below 0 are ignored)
+
+    @return The pruned view
+     */
+    public static PrunedGraph build(Graph graph, int... keep) {
+        int n = graph.size();
+        int[] degree = new int[n];
+        boolean[] kept = new boolean[n];
+        for (int v : keep) {
+            if (v >= 0) {
+                kept[v] = true;
+            }
+        }
+
+        // Start with every dead end (and every isolated node)
+        // A node enters the queue once, when its degree first drops to 1 or less
+        int[] queue = new int[n];
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            degree[v] = graph.degree(v);
+            if (degree[v] <= 1 && !kept[v]) {
+                queue[tail++] = v;
+            }
+        }
+
+        // Peel: removing a dead end may make its neighbour one
+        // (degree -1 marks a removed node)
+        for (int head = 0; head < tail; head++) {
+            int v = queue[head];
+            degree[v] = -1;
+            for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                int w = graph.target(e);
+                if (degree[w] > 0) {
+                    degree[w]--;
+                    if (degree[w] == 1 && !kept[w]) {
+                        queue[tail++] = w;
+                    }
+                }
+            }
+        }
+        int removed = tail;
+
+        // Dense ids for the survivors
+        int k = n - removed;
+        int[] coreOf = new int[n];
+        int[] originalOf = new int[k];
+        int next = 0;
+        for (int v = 0; v < n; v++) {
+            if (degree[v] >= 0) {
+                originalOf[next] = v;
+                coreOf[v] = next++;
+            } else {
+                coreOf[v] = -1;
+            }
+        }
+
+        // Copy the connections whose both ends survived, in the same order
+        int[] offsets = new int[k + 1];
+        for (int c = 0; c < k; c++) {
+            offsets[c + 1] = offsets[c] + degree[originalOf[c]];
+        }
+        int[] targets = new int[offsets[k]];
+        double[] weights = graph.hasWeights() ? new double[targets.length] : null;
+        int write = 0;
+        for (int c = 0; c < k; c++) {
+            int v = originalOf[c];
+            for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                int w = coreOf[graph.target(e)];
+                if (w >= 0) {
+                    if (weights != null) {
+                        weights[write] = graph.weight(v, e);
+                    }
+                    targets[write++] = w;
+                }
+            }
+        }
+
+        int[] xs = new int[k];
+        int[] ys = new int[k];
+        for (int c = 0; c < k; c++) {
+            xs[c] = graph.getX(originalOf[c]);
+            ys[c] = graph.getY(originalOf[c]);
+        }
+        ArrayGraph core = new ArrayGraph(NameTable.copyOf(graph, originalOf), xs, ys, offsets, targets, weights);
+        return new PrunedGraph(graph, core, coreOf, originalOf);
+    }
+
+    /*
+    Turn a path of core ids back into original ids
+
+    @param path Core ids (overwritten with the original ids)
+
+    @param length Number of ids
+
+    @return The same array
+     */
+    public int[] toOriginal(int[] path, int length) {
+        for (int i = 0; i < length; i++) {
+            path[i] = originalOf[path[i]];
+        }
+        return path;
+    }
+
+    public Graph getOriginal() {
+        // Return the graph that was pruned
+        return original;
+    }
+
+    public Graph getCore() {
+        // Return the graph left after the dead ends were removed
+        return core;
+    }
+
+    public int coreId(int node) {
+        // Return the core id of an original node, or -1 if it was removed
+        return coreOf[node];
+    }
+
+    public int originalId(int node) {
+        // Return the original id of a core node
+        return originalOf[node];
+    }
+
+    public int getRemovedCount() {
+        // Return the number of nodes removed
+        return original.size() - core.size();
+    }
+
+    public int getRemovedEdgeCount() {
+        // Return the number of connections removed
+        return original.getEdgeCount() - core.getEdgeCount();
+    }
+
+    public double getRemovedFraction() {
+        // Return the share of the nodes that was removed (0 for an empty graph)
+        return original.size() == 0 ? 0 : (double) getRemovedCount() / original.size();
+    }
+
+    @Override
+    public String toString() {
+        // Summary of how much the pass removed
+        return String.format("Pruned %d of %d nodes (%.1f%%) and %d of %d connections",
+                getRemovedCount(), original.size(), getRemovedFraction() * 100,
+                getRemovedEdgeCount(), original.getEdgeCount());
+    }
+}
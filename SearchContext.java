@@ -0,0 +1,379 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//SearchContext holds the reusable scratch state of a graph search
+
+package maze;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+Reusable per-query search state
+
+All arrays are indexed by node id and are only reallocated when a bigger
+graph is searched. Instead of clearing the visited flags before every query,
+each query gets a new epoch number: a node counts as visited only when its
+stamp equals the current epoch. A repeated query therefore allocates nothing.
+
+A context is not thread-safe; use one per thread.
+ */
+public class SearchContext {
+
+    // Scratch arrays, indexed by node id
+    private int[] queue;       // Ring buffer of node ids waiting to be expanded
+
+    private int[] parent;      // Parent of each visited node (-1 for the source)
+
+    private int[] visited;     // Epoch stamp of the query that last visited each node
+
+    private int[] distance;    // Number of edges from the source to each visited node
+
+    private int[] path;        // Path of the last successful query, source first
+
+    // Second set of arrays for searches that also expand from the goal
+    private int[] backQueue;     // Queue of the backward search
+
+    private int[] backParent;    // Parent of each node in the backward search (-1 for the goal)
+
+    private int[] backVisited;   // Epoch stamps of the backward search
+
+    private int[] backDistance;  // Number of edges from each node to the goal
+
+    // Visited stamps that several threads can claim with compare-and-set
+    private AtomicIntegerArray sharedVisited;
+
+    // Bitsets used by direction-optimizing BFS (one bit per node)
+    private long[] visitedBits;
+
+    private long[] frontierBits;
+
+    private long[] nextBits;
+
+    private IntMinHeap heap;   // Priority queue of best-first searches (e.g., A*)
+
+    // Weighted searches (Dijkstra)
+    private double[] cost;     // Total weight of the best path found to each node
+
+    private IntMinHeap weightedHeap; // 4-ary heap for arbitrary weights
+
+    private BucketQueue buckets;     // Dial's bucket queue for small whole-number weights
+
+    private SearchListener listener; // Receives trace events (null when nobody listens)
+
+    // Query state
+    private int epoch;         // Stamp of the current query
+
+    private int pathLength;    // Number of nodes in path (0 if no path)
+
+    private int expandedCount; // Number of nodes expanded by the last query
+
+    private long edgesInspected; // Number of edge checks made by the last query
+
+    private double pathCost;   // Total weight of the last path found by a weighted search
+
+    /*
+    Constructor creates an empty context, arrays are sized on first use
+     */
+    public SearchContext() {
+        queue = new int[0];
+        parent = new int[0];
+        visited = new int[0];
+        distance = new int[0];
+        path = new int[0];
+        backQueue = new int[0];
+        backParent = new int[0];
+        backVisited = new int[0];
+        backDistance = new int[0];
+        sharedVisited = new AtomicIntegerArray(0);
+        visitedBits = new long[0];
+        frontierBits = new long[0];
+        nextBits = new long[0];
+        heap = new IntMinHeap(0);
+        cost = new double[0];
+        weightedHeap = new IntMinHeap(0, 4);
+        buckets = new BucketQueue();
+        epoch = 0;
+    }
+
+    /*
+    Prepare the context for a new query on a graph
+
+    @param size Number of nodes in the graph to be searched
+     */
+    public void begin(int size) {
+        // Grow the arrays when the graph is larger than any searched before
+        if (visited.length < size) {
+            // The queue is a power-of-two ring buffer so wrapping is a mask
+            queue = new int[Integer.highestOneBit(Math.max(size - 1, 1)) << 1];
+            parent = new int[size];
+            visited = new int[size];
+            distance = new int[size];
+            path = new int[size];
+            epoch = 0;
+            // Backward and shared arrays are reallocated by their begin methods if they are used
+            backVisited = new int[0];
+            sharedVisited = new AtomicIntegerArray(0);
+        }
+
+        // Start a new epoch, clearing the stamps only when the counter wraps
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            Arrays.fill(backVisited, 0);
+            for (int i = 0; i < sharedVisited.length(); i++) {
+                sharedVisited.set(i, 0);
+            }
+            epoch = 1;
+        }
+
+        pathLength = 0;
+        pathCost = 0;
+        expandedCount = 0;
+        edgesInspected = 0;
+    }
+
+    /*
+    Prepare the backward arrays for a search that also expands from the goal
+
+    Must be called after begin(), which chooses the epoch both directions share.
+
+    @param size Number of nodes in the graph to be searched
+     */
+    public void beginBackward(int size) {
+        // Allocate the second set of arrays the first time they are needed
+        if (backVisited.length < size) {
+            backQueue = new int[size];
+            backParent = new int[size];
+            backVisited = new int[size];
+            backDistance = new int[size];
+        }
+    }
+
+    /*
+    Prepare the visited stamps used by parallel searches
+
+    Must be called after begin(), which chooses the epoch.
+
+    @param size Number of nodes in the graph to be searched
+     */
+    public void beginShared(int size) {
+        // Allocate the atomic stamps the first time they are needed
+        if (sharedVisited.length() < size) {
+            sharedVisited = new AtomicIntegerArray(size);
+        }
+    }
+
+    /*
+    Prepare empty bitsets for a direction-optimizing search
+
+    Bitsets cannot use the epoch trick, so they are cleared here; that costs
+    one long per 64 nodes.
+
+    @param size Number of nodes in the graph to be searched
+     */
+    public void beginBitsets(int size) {
+        int words = (size + 63) >>> 6;
+        if (visitedBits.length < words) {
+            visitedBits = new long[words];
+            frontierBits = new long[words];
+            nextBits = new long[words];
+        } else {
+            Arrays.fill(visitedBits, 0L);
+            Arrays.fill(frontierBits, 0L);
+            Arrays.fill(nextBits, 0L);
+        }
+    }
+
+    /*
+    Prepare an empty priority queue for a best-first search
+
+    @param size Number of nodes in the graph to be searched
+     */
+    public void beginHeap(int size) {
+        // Grows the first time a bigger graph is searched, otherwise just empties it
+        heap.ensureCapacity(size);
+    }
+
+    /*
+    Prepare the cost array of a weighted search
+
+    Must be called after begin(); the visited stamps tell which costs are set.
+
+    @param size Number of nodes in the graph to be searched
+     */
+    public void beginWeighted(int size) {
+        if (cost.length < size) {
+            cost = new double[size];
+        }
+    }
+
+    /*
+    Store the path to a node by following parent pointers
+
+    @param target Id of the last node of the path
+
+    @return Number of nodes in the path
+     */
+    public int tracePath(int target) {
+        // Count the nodes first so the path can be written front to back
+        int length = 0;
+        for (int v = target; v >= 0; v = parent[v]) {
+            length++;
+        }
+
+        // Fill the path from the end, so no reverse step is needed
+        int i = length;
+        for (int v = target; v >= 0; v = parent[v]) {
+            path[--i] = v;
+        }
+
+        pathLength = length;
+        return length;
+    }
+
+    // Getter methods
+    public int[] getQueue() {
+        // Return the ring buffer used as the search queue
+        return queue;
+    }
+
+    public int[] getParent() {
+        // Return the parent array of the current query
+        return parent;
+    }
+
+    public int[] getVisited() {
+        // Return the epoch stamps of visited nodes
+        return visited;
+    }
+
+    public int getEpoch() {
+        // Return the stamp that marks a node as visited by the current query
+        return epoch;
+    }
+
+    public int[] getDistance() {
+        // Return the distance of each visited node from the source
+        return distance;
+    }
+
+    public int[] getBackQueue() {
+        // Return the queue of the backward search
+        return backQueue;
+    }
+
+    public int[] getBackParent() {
+        // Return the parent array of the backward search
+        return backParent;
+    }
+
+    public int[] getBackVisited() {
+        // Return the epoch stamps of the backward search
+        return backVisited;
+    }
+
+    public int[] getBackDistance() {
+        // Return the distance of each backward-visited node to the goal
+        return backDistance;
+    }
+
+    public AtomicIntegerArray getSharedVisited() {
+        // Return the visited stamps parallel searches claim with compare-and-set
+        return sharedVisited;
+    }
+
+    public long[] getVisitedBits() {
+        // Return the visited bitset of a direction-optimizing search
+        return visitedBits;
+    }
+
+    public long[] getFrontierBits() {
+        // Return the frontier bitset of a direction-optimizing search
+        return frontierBits;
+    }
+
+    public long[] getNextBits() {
+        // Return the next-frontier bitset of a direction-optimizing search
+        return nextBits;
+    }
+
+    public IntMinHeap getHeap() {
+        // Return the priority queue of a best-first search
+        return heap;
+    }
+
+    public double[] getCost() {
+        // Return the best known path weight of each visited node
+        return cost;
+    }
+
+    public IntMinHeap getWeightedHeap() {
+        // Return the 4-ary heap of a weighted search
+        return weightedHeap;
+    }
+
+    public BucketQueue getBuckets() {
+        // Return the bucket queue of a weighted search with small whole-number weights
+        return buckets;
+    }
+
+    public double getPathCost() {
+        // Return the total weight of the last path a weighted search found
+        return pathCost;
+    }
+
+    public SearchListener getListener() {
+        // Return the attached trace listener, or null
+        return listener;
+    }
+
+    public int[] getPath() {
+        // Return the path buffer (only the first getPathLength() entries are valid)
+        return path;
+    }
+
+    public int getPathLength() {
+        // Return the number of nodes in the last path found (0 if none)
+        return pathLength;
+    }
+
+    public int getExpandedCount() {
+        // Return the number of nodes the last query expanded
+        return expandedCount;
+    }
+
+    public long getEdgesInspected() {
+        // Return how many edges the last query checked
+        return edgesInspected;
+    }
+
+    // Setter methods
+    public void setPathLength(int pathLength) {
+        // Record the length of a path an engine wrote into the path buffer itself
+        this.pathLength = pathLength;
+    }
+
+    public void setPathCost(double pathCost) {
+        // Record the total weight of the path just found
+        this.pathCost = pathCost;
+    }
+
+    public void setListener(SearchListener listener) {
+        // Attach a trace listener (null detaches it)
+        this.listener = listener;
+    }
+
+    public void setExpandedCount(int expandedCount) {
+        // Record how many nodes the current query expanded
+        this.expandedCount = expandedCount;
+    }
+
+    public void setEdgesInspected(long edgesInspected) {
+        // Record how many edges the current query checked
+        this.edgesInspected = edgesInspected;
+    }
+}
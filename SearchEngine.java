@@ -0,0 +1,34 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//SearchEngine is the common interface of all path search algorithms
+
+package maze;
+
+/*
+A path search algorithm that runs on a Graph
+
+Engines keep no per-query state of their own. Everything a query needs is
+kept in the SearchContext, and the path found is stored there too
+(see SearchContext.getPath()).
+ */
+public interface SearchEngine {
+
+    /*
+    Find a shortest path between two nodes
+
+    @param graph Graph to search
+
+    @param context Scratch state for this query (path and statistics are stored here)
+
+    @param source Id of the start node
+
+    @param target Id of the goal node
+
+    @return true if the goal was reached
+     */
+    boolean search(Graph graph, SearchContext context, int source, int target);
+}
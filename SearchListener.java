@@ -0,0 +1,45 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//SearchListener receives trace events from a running search
+
+package maze;
+
+/*
+Callback surface for observing a search
+
+Engines call these hooks only when a listener is attached to the
+SearchContext, so a search with no listener pays nothing for them. All
+methods have empty defaults; override the ones you need.
+ */
+public interface SearchListener {
+
+    /*
+    Called when a node is taken from the queue and its neighbours are examined
+
+    @param node Id of the expanded node
+     */
+    default void nodeExpanded(int node) {
+    }
+
+    /*
+    Called when an edge reaches a node for the first time (the node is queued)
+
+    @param from Id of the node being expanded
+
+    @param to Id of the newly reached node
+     */
+    default void edgeRelaxed(int from, int to) {
+    }
+
+    /*
+    Called once when the search reaches its goal
+
+    @param goal Id of the goal node
+     */
+    default void goalFound(int goal) {
+    }
+}
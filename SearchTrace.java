@@ -0,0 +1,142 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//SearchTrace is a compact record of one search, replayed frame by frame for animation
+
+package maze;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+Compact event log of a search
+
+Only the expansion order and the parent array are stored, so a trace costs
+O(nodes) memory no matter how deep the maze is. Animation frames (the path
+from the source to the node expanded at a step) are rebuilt on demand by a
+Cursor, which can move forward or seek to any step.
+ */
+public class SearchTrace {
+
+    private final Graph graph;       // Graph that was searched (for node names)
+
+    private final int[] order;       // Node ids in the order they were expanded
+
+    private final int stepCount;     // Number of valid entries in order
+
+    private final int[] parent;      // Parent of every node reached by the search
+
+    /*
+    Constructor
+
+    @param graph Graph that was searched
+
+    @param order Expanded node ids (only the first stepCount entries are used)
+
+    @param stepCount Number of expansions
+
+    @param parent Parent array of the search (-1 for the source)
+     */
+    public SearchTrace(Graph graph, int[] order, int stepCount, int[] parent) {
+        this.graph = graph;
+        this.order = order;
+        this.stepCount = stepCount;
+        this.parent = parent;
+    }
+
+    public int getStepCount() {
+        // Return the number of frames (one per expanded node)
+        return stepCount;
+    }
+
+    public int nodeAt(int step) {
+        // Return the id of the node expanded at the given step
+        return order[step];
+    }
+
+    /*
+    Build the frame for one step
+
+    @param step Step number (0 .. getStepCount()-1)
+
+    @return Node names from the source to the node expanded at that step
+     */
+    public List<String> pathAt(int step) {
+        // Walk the parent pointers back to the source
+        List<String> path = new ArrayList<>();
+        for (int v = order[step]; v >= 0; v = parent[v]) {
+            path.add(graph.nameOf(v));
+        }
+        // Reverse so the path starts at the source
+        Collections.reverse(path);
+        return path;
+    }
+
+    public Cursor cursor() {
+        // Create a cursor positioned before the first frame
+        return new Cursor();
+    }
+
+    /*
+    Lazily builds animation frames from the trace
+
+    Only the frame of the current step is kept in memory.
+     */
+    public class Cursor {
+
+        private int step;            // Current step (-1 before the first frame)
+
+        private List<String> frame;  // Cached frame of the current step (null until needed)
+
+        private Cursor() {
+            step = -1;
+        }
+
+        public boolean hasNext() {
+            // Return true if there is a frame after the current one
+            return step < stepCount - 1;
+        }
+
+        /*
+        Move to the next step
+
+        @return The frame of the new step
+         */
+        public List<String> next() {
+            seek(step + 1);
+            return getPath();
+        }
+
+        /*
+        Move to any step
+
+        @param newStep Step number (0 .. getStepCount()-1)
+         */
+        public void seek(int newStep) {
+            if (newStep < 0 || newStep >= stepCount) {
+                throw new IndexOutOfBoundsException("Step " + newStep + " of " + stepCount);
+            }
+            if (newStep != step) {
+                step = newStep;
+                frame = null;
+            }
+        }
+
+        public int getStep() {
+            // Return the current step (-1 before the first frame)
+            return step;
+        }
+
+        public List<String> getPath() {
+            // Build the current frame the first time it is asked for
+            if (frame == null && step >= 0) {
+                frame = pathAt(step);
+            }
+            return frame;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//ShortestPathTree keeps the result of one full BFS so paths to any target can be read off it
+
+package maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Single-source shortest-path tree
+
+Built by one BFS that runs until every reachable node is found. Afterwards
+the path from the source to any target is read off the parent pointers in
+time proportional to the path length. The tree belongs to the graph it was
+built from and becomes stale when the maze is reloaded.
+ */
+public class ShortestPathTree {
+
+    private final Graph graph;       // Graph the tree was built from
+
+    private final int source;        // Id of the root node
+
+    private final int[] distance;    // Edges from the source to each node (-1 = unreachable)
+
+    private final int[] parent;      // Parent of each node in the tree (-1 for the source and unreachable nodes)
+
+    private final int reachedCount;  // Number of nodes reachable from the source
+
+    /*
+    Constructor is private, trees are created by build()
+     */
+    private ShortestPathTree(Graph graph, int source, int[] distance, int[] parent, int reachedCount) {
+        this.graph = graph;
+        this.source = source;
+        this.distance = distance;
+        this.parent = parent;
+        this.reachedCount = reachedCount;
+    }
+
+    /*
+    Run a full BFS from a source node
+
+    @param graph Graph to search
+
+    @param source Id of the root node
+
+    @return The shortest-path tree rooted at source
+     */
+    public static ShortestPathTree build(Graph graph, int source) {
+        int n = graph.size();
+        int[] distance = new int[n];
+        int[] parent = new int[n];
+        // The distance array doubles as the visited mark
+        Arrays.fill(distance, -1);
+        Arrays.fill(parent, -1);
+
+        // Every node is queued at most once, so a plain array is enough
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        distance[source] = 0;
+
+        // BFS without a goal: visit everything reachable
+        while (head < tail) {
+            int current = queue[head++];
+            int end = graph.edgeEnd(current);
+            for (int e = graph.edgeStart(current); e < end; e++) {
+                int next = graph.target(e);
+                if (distance[next] < 0) {
+                    distance[next] = distance[current] + 1;
+                    parent[next] = current;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        return new ShortestPathTree(graph, source, distance, parent, tail);
+    }
+
+    /*
+    Read the shortest path to a target off the tree
+
+    @param target Id of the target node
+
+    @return Node ids from the source to the target, or an empty array if unreachable
+     */
+    public int[] pathTo(int target) {
+        if (distance[target] < 0) {
+            return new int[0];
+        }
+        // The distance gives the path length, so the path is filled from the end
+        int[] path = new int[distance[target] + 1];
+        int i = path.length;
+        for (int v = target; v >= 0; v = parent[v]) {
+            path[--i] = v;
+        }
+        return path;
+    }
+
+    /*
+    Read the shortest path to a target off the tree as node names
+
+    @param target Id of the target node
+
+    @return Node names from the source to the target, or an empty list if unreachable
+     */
+    public List<String> namesTo(int target) {
+        int[] path = pathTo(target);
+        List<String> names = new ArrayList<>(path.length);
+        for (int id : path) {
+            names.add(graph.nameOf(id));
+        }
+        return names;
+    }
+
+    public boolean isReachable(int target) {
+        // Return true if the target can be reached from the source
+        return distance[target] >= 0;
+    }
+
+    public int getDistance(int target) {
+        // Return the number of edges from the source to the target (-1 if unreachable)
+        return distance[target];
+    }
+
+    public int getParent(int node) {
+        // Return the parent of a node in the tree (-1 for the source and unreachable nodes)
+        return parent[node];
+    }
+
+    public int getSource() {
+        // Return the id of the root node
+        return source;
+    }
+
+    public Graph getGraph() {
+        // Return the graph the tree was built from
+        return graph;
+    }
+
+    public int getReachedCount() {
+        // Return the number of nodes reachable from the source (including the source)
+        return reachedCount;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//SolutionCache remembers solved paths by the content hash of the maze they belong to
+
+package maze;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Content-addressed cache of solved paths
+
+Keys combine the content digest of a graph (see Graph.getDigest()) with the
+source and target ids, so reloading an identical maze file (even into a
+different Maze object) finds the earlier answer. Paths are stored as node id
+arrays; ids are the same for identical content. The cache is bounded by an
+estimate of its memory use and evicts the least recently used entries.
+
+All methods are thread-safe. Lookups do not lock, so many threads can read
+the cache at once; only put() and clear() are serialised. When the bound is
+exceeded, put() evicts down to 3/4 of it, so the sort by last use is paid
+once per many insertions.
+ */
+public class SolutionCache {
+
+    // Default size of the cache shared by all Maze objects
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    // Rough per-entry cost of the map entry, key object and array header
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private static final SolutionCache SHARED = new SolutionCache(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;                // Memory bound of the cache
+
+    private final ConcurrentHashMap<String, Entry> entries; // Cached paths by key
+
+    private final AtomicLong usedBytes;         // Estimated memory used by the entries
+
+    private final AtomicLong clock;             // Use counter for least-recently-used eviction
+
+    // Statistics
+    private final LongAdder hits;
+
+    private final LongAdder misses;
+
+    private final LongAdder evictions;
+
+    // Cached path with the time it was last used
+    private static final class Entry {
+        final int[] path;
+        volatile long lastUsed;
+
+        Entry(int[] path, long lastUsed) {
+            this.path = path;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /*
+    Constructor
+
+    @param maxBytes Memory bound, in (estimated) bytes
+     */
+    public SolutionCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.entries = new ConcurrentHashMap<>();
+        this.usedBytes = new AtomicLong();
+        this.clock = new AtomicLong();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    public static SolutionCache getShared() {
+        // Return the cache every Maze uses unless told otherwise
+        return SHARED;
+    }
+
+    /*
+    Build the key of a query
+
+    @param graph Graph being searched
+
+    @param source Id of the start node
+
+    @param target Id of the goal node
+
+    @return Cache key
+     */
+    public static String keyOf(Graph graph, int source, int target) {
+        return graph.getDigest() + ":" + source + ":" + target;
+    }
+
+    /*
+    Build the key of a query measured by a metric
+
+    Fewest-connection and smallest-weight paths of the same query differ, so
+    the metric is part of the key (HOPS keys are the same as keyOf above).
+
+    @param graph Graph being searched
+
+    @param source Id of the start node
+
+    @param target Id of the goal node
+
+    @param metric What the path minimises
+
+    @return Cache key
+     */
+    public static String keyOf(Graph graph, int source, int target, Maze.Metric metric) {
+        String key = keyOf(graph, source, target);
+        return metric == Maze.Metric.HOPS ? key : key + ":" + metric;
+    }
+
+    /*
+    Look up a solved path
+
+    @param key Key from keyOf()
+
+    @return Node ids of the path (empty if the query has no path), or null on a miss
+     */
+    public int[] get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        entry.lastUsed = clock.incrementAndGet();
+        return entry.path;
+    }
+
+    /*
+    Store a solved path, evicting least recently used entries to stay within the bound
+
+    @param key Key from keyOf()
+
+    @param path Node ids of the path (empty if the query has no path)
+     */
+    public synchronized void put(String key, int[] path) {
+        long size = sizeOf(key, path);
+        // Entries larger than the whole cache are not kept
+        if (size > maxBytes) {
+            return;
+        }
+
+        Entry previous = entries.put(key, new Entry(path, clock.incrementAndGet()));
+        if (previous != null) {
+            usedBytes.addAndGet(-sizeOf(key, previous.path));
+        }
+        if (usedBytes.addAndGet(size) <= maxBytes) {
+            return;
+        }
+
+        // Evict from the least recently used end until 3/4 of the bound is used
+        List<Map.Entry<String, Entry>> byAge = new ArrayList<>(entries.entrySet());
+        Collections.sort(byAge, new Comparator<Map.Entry<String, Entry>>() {
+            @Override
+            public int compare(Map.Entry<String, Entry> a, Map.Entry<String, Entry> b) {
+                return Long.compare(a.getValue().lastUsed, b.getValue().lastUsed);
+            }
+        });
+        long target = maxBytes - maxBytes / 4;
+        for (int i = 0; i < byAge.size() && usedBytes.get() > target; i++) {
+            Map.Entry<String, Entry> eldest = byAge.get(i);
+            if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                usedBytes.addAndGet(-sizeOf(eldest.getKey(), eldest.getValue().path));
+                evictions.increment();
+            }
+        }
+    }
+
+    /*
+    Estimate the memory an entry uses
+
+    @param key Entry key
+
+    @param path Entry path
+
+    @return Estimated size in bytes
+     */
+    private static long sizeOf(String key, int[] path) {
+        return ENTRY_OVERHEAD + 2L * key.length() + 4L * path.length;
+    }
+
+    public synchronized void clear() {
+        // Remove every entry (statistics are kept)
+        entries.clear();
+        usedBytes.set(0);
+    }
+
+    // Getter methods
+    public long getHits() {
+        // Return the number of lookups that found a path
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        // Return the number of lookups that found nothing
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        // Return the number of entries dropped to stay within the memory bound
+        return evictions.sum();
+    }
+
+    public int size() {
+        // Return the number of cached paths
+        return entries.size();
+    }
+
+    public long getUsedBytes() {
+        // Return the estimated memory used by the cached paths
+        return usedBytes.get();
+    }
+
+    public long getMaxBytes() {
+        // Return the memory bound of the cache
+        return maxBytes;
+    }
+}
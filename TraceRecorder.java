@@ -0,0 +1,78 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//TraceRecorder is a SearchListener that records the expansion order for a SearchTrace
+
+package maze;
+
+import java.util.Arrays;
+
+/*
+Records the order in which a search expands nodes
+
+Every event is also passed on to an optional delegate listener, so recording
+a trace does not hide the search from a debug listener.
+ */
+public class TraceRecorder implements SearchListener {
+
+    private final SearchListener delegate; // Listener that also receives every event (may be null)
+
+    private int[] order;                   // Expanded node ids
+
+    private int count;                     // Number of recorded expansions
+
+    /*
+    Constructor
+
+    @param expectedNodes Initial capacity (e.g., number of nodes in the graph)
+
+    @param delegate Listener to forward events to, or null
+     */
+    public TraceRecorder(int expectedNodes, SearchListener delegate) {
+        this.delegate = delegate;
+        this.order = new int[Math.max(expectedNodes, 16)];
+    }
+
+    @Override
+    public void nodeExpanded(int node) {
+        // Grow the buffer when full
+        if (count == order.length) {
+            order = Arrays.copyOf(order, count * 2);
+        }
+        order[count++] = node;
+        if (delegate != null) {
+            delegate.nodeExpanded(node);
+        }
+    }
+
+    @Override
+    public void edgeRelaxed(int from, int to) {
+        if (delegate != null) {
+            delegate.edgeRelaxed(from, to);
+        }
+    }
+
+    @Override
+    public void goalFound(int goal) {
+        if (delegate != null) {
+            delegate.goalFound(goal);
+        }
+    }
+
+    /*
+    Package the recording into a trace
+
+    @param graph Graph that was searched
+
+    @param context Context of the finished search (its parent array is copied)
+
+    @return The trace
+     */
+    public SearchTrace toTrace(Graph graph, SearchContext context) {
+        return new SearchTrace(graph, order, count,
+                Arrays.copyOf(context.getParent(), graph.size()));
+    }
+}
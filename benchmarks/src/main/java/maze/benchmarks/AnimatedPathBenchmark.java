@@ -0,0 +1,77 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//AnimatedPathBenchmark measures the memory cost of recording a search for animation
+
+package maze.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import maze.Maze;
+import maze.MazeGenerator;
+import maze.SearchTrace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+Memory cost of the animation data
+
+getAnimatedPath() builds one full path per expanded node, so it grows with
+expanded nodes times path length; traceSearch() records one int per node.
+Run with "-prof gc" and compare gc.alloc.rate.norm (bytes per call) of the
+two benchmarks. Sizes stop at 10^5 because the frame lists of larger mazes
+do not fit in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AnimatedPathBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;                      // Number of nodes
+
+    @Param({"CORRIDOR", "TREE", "GRID", "LOOPS"})
+    public MazeGenerator.Shape shape;     // Branching shape
+
+    private Maze maze;                    // Maze recorded by every invocation
+
+    @Setup(Level.Trial)
+    public void loadMaze() throws IOException {
+        Path file = BenchmarkMazes.write(shape, size, 42);
+        maze = new Maze();
+        if (!maze.loadMaze(file.toString())) {
+            throw new IllegalStateException("Could not load " + file);
+        }
+        Files.delete(file);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public List<List<String>> getAnimatedPath() {
+        return maze.getAnimatedPath();
+    }
+
+    @Benchmark
+    public SearchTrace traceSearch() {
+        return maze.traceSearch();
+    }
+}
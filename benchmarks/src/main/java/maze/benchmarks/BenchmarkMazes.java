@@ -0,0 +1,44 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//BenchmarkMazes writes synthetic maze files for the benchmarks
+
+package maze.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import maze.MazeGenerator;
+
+/*
+Temporary maze files made by MazeGenerator
+
+The same shape, size and seed always give the same file.
+ */
+public final class BenchmarkMazes {
+
+    private BenchmarkMazes() {
+        // Static helpers only
+    }
+
+    /*
+    Write a maze to a temporary file
+
+    @param shape Branching shape
+
+    @param size Number of nodes (at least 2)
+
+    @param seed Generator seed
+
+    @return The file, deleted when the JVM exits
+     */
+    public static Path write(MazeGenerator.Shape shape, int size, long seed) throws IOException {
+        Path file = Files.createTempFile("maze-" + shape + "-" + size + "-", ".txt");
+        file.toFile().deleteOnExit();
+        new MazeGenerator(shape, size, seed).write(file.toString());
+        return file;
+    }
+}
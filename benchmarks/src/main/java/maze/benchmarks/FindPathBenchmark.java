@@ -0,0 +1,76 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//FindPathBenchmark measures the latency and allocations of Maze.findPath
+
+package maze.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import maze.AStarEngine;
+import maze.BfsEngine;
+import maze.Maze;
+import maze.MazeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+Latency of Maze.findPath on an already loaded maze
+
+Sample mode gives the latency percentiles. Run with "-prof gc" to see the
+allocation rate; gc.alloc.rate.norm is the bytes allocated per search.
+The solution cache is switched off so every call really searches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FindPathBenchmark {
+
+    @Param({"100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int size;                      // Number of nodes
+
+    @Param({"CORRIDOR", "TREE", "GRID", "LOOPS"})
+    public MazeGenerator.Shape shape;     // Branching shape
+
+    @Param({"BFS", "ASTAR"})
+    public String engine;                 // Search algorithm
+
+    private Maze maze;                    // Maze searched by every invocation
+
+    @Setup(Level.Trial)
+    public void loadMaze() throws IOException {
+        Path file = BenchmarkMazes.write(shape, size, 42);
+        maze = new Maze();
+        if (!maze.loadMaze(file.toString())) {
+            throw new IllegalStateException("Could not load " + file);
+        }
+        Files.delete(file);
+        // Measure the search, not the cache lookup
+        maze.setSolutionCache(null);
+        maze.setSearchEngine("ASTAR".equals(engine) ? new AStarEngine() : new BfsEngine());
+    }
+
+    @Benchmark
+    public List<String> findPath() {
+        return maze.findPath();
+    }
+}
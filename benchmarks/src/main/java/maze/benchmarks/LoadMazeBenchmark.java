@@ -0,0 +1,82 @@
+/*
+Name: Suemon Kwok
+Student ID: 14883335
+Data structures and algorithms
+*/
+
+//LoadMazeBenchmark measures how fast Maze.loadMaze parses maze files
+
+package maze.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import maze.Maze;
+import maze.MazeGenerator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+Parsing throughput of Maze.loadMaze
+
+Reports loads per second, and through the "nodes" counter the number of
+maze rows parsed per second, which can be compared across sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LoadMazeBenchmark {
+
+    @Param({"100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int size;                      // Number of nodes
+
+    @Param({"CORRIDOR", "TREE", "GRID", "LOOPS"})
+    public MazeGenerator.Shape shape;     // Branching shape
+
+    private Path file;                    // Maze file written for this trial
+
+    // Per-thread counter of parsed rows, reported by JMH as a rate
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Parsed {
+        public long nodes;
+    }
+
+    @Setup(Level.Trial)
+    public void writeMaze() throws IOException {
+        // Write the maze once per parameter combination
+        file = BenchmarkMazes.write(shape, size, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteMaze() throws IOException {
+        // Large mazes take a lot of disk space, remove them straight away
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Maze loadMaze(Parsed parsed) {
+        Maze maze = new Maze();
+        if (!maze.loadMaze(file.toString())) {
+            throw new IllegalStateException("Could not load " + file);
+        }
+        parsed.nodes += size;
+        return maze;
+    }
+}